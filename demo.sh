@@ -27,9 +27,9 @@ mkdir -p "${build_dir}"
 mkdir -p "${gen_dir}"
 mkdir -p "${output_dir}"
 
-readonly STOP_AT_LEVEL="-XX:TieredStopAtLevel=" # followed by level number
 readonly EXTRA_JAVA_FLAGS=""
 readonly n_exec_itrs=""
+readonly batch_size=10 # programs run in one JVM per mode
 
 
 # Download jdk.
@@ -60,6 +60,18 @@ if [[ ! -f ${JATTACK_JAR} ]]; then
         cp "${SRC_DIR}/build/libs/sketchy-${VERSION}-all.jar" "${JATTACK_JAR}"
 fi
 
+# Build the runner.
+readonly RUNNER_JAR="${_DIR}/jattack-runner.jar"
+if [[ ! -f ${RUNNER_JAR} ]]; then
+        echo "Build runner..."
+        readonly RUNNER_DIR="${_DIR}/tool/runner"
+        readonly RUNNER_VERSION="$( grep '^version ' "${RUNNER_DIR}"/build.gradle | cut -d' ' -f2 | tr -d "'" )"
+        pushd "${RUNNER_DIR}" >/dev/null
+        ./gradlew -q clean jar
+        popd >/dev/null
+        cp "${RUNNER_DIR}/build/libs/runner-${RUNNER_VERSION}.jar" "${RUNNER_JAR}"
+fi
+
 # Compile the template
 if [[ ! -f ${src} ]]; then
         echo "ERROR: file not found: ${src}" >&2
@@ -81,7 +93,8 @@ java -cp "${JATTACK_JAR}:${build_dir}" sketchy.driver.Driver \
      --outputDir="${gen_dir}" \
      --clzName=${class} \
      --srcPath="${src}" \
-     --nInvocations=${n_invocations}
+     --nInvocations=${n_invocations} \
+     --saveClassFiles
 if [[ $? -ne 0 ]]; then
         echo "ERROR: generating from ${src}" >&2
         exit 1
@@ -91,72 +104,21 @@ fi
 num_gen=$( find "${gen_dir}" -name "*.java" | wc -l )
 echo "${num_gen} programs are generated in ${gen_dir}"
 
-# Do differential testing for every generated program
-CP="${build_dir}:${JATTACK_JAR}"
-fail_clzes=()
-for file in $( find ${gen_dir} -name "*.java" | sort -V ); do
-        gen_clz="$( basename "${file}" | cut -d '.' -f 1 )"
-        output_dir_per_gen="${output_dir}/${gen_clz}"
-        rm -fr "${output_dir_per_gen}" && mkdir -p "${output_dir_per_gen}"
-
-        # Compile
-        javac -cp "${JATTACK_JAR}" "${file}" -d "${build_dir}"
-        if [[ $? -ne 0 ]]; then
-                echo "ERROR: compiling ${file}" >&2
-                exit 1
-        fi
-
-        # Run at all modes
-        echo "Executing ${gen_clz}..."
-        for mode in "${modes[@]}"; do
-                echo "  At ${mode}..."
-
-                output_file="${output_dir_per_gen}/${gen_clz}-${mode}.txt"
-                case "${mode}" in
-                'level'[01234])
-                        level="${mode: -1}"
-                        java -cp "${CP}" \
-                             ${EXTRA_JAVA_FLAGS} \
-                             ${STOP_AT_LEVEL}${level} \
-                             ${gen_clz} ${n_exec_itrs} \
-                             >"${output_file}" 2>&1
-                        if [[ $? -ne 0 ]]; then
-                                ## Runtime exception or Error.
-                                echo "ERROR: running ${gen_clz} at ${mode}. See ${output_file}" >&2
-                        fi
-                        ;;
-                *)
-                        echo "ERROR: unsupported mode: ${mode}" >&2
-                        exit 1
-                        ;;
-                esac
-                # cat ${output_file}
-        done
-
-        # Compare every two modes
-        for (( i=0 ; i < ${#modes[@]} ; i+=1 )); do
-                for (( j=$(( ${i}+1 )) ; j < ${#modes[@]} ; j+=1 )); do
-                        modeA=${modes[i]}
-                        modeB=${modes[j]}
-
-                        diff_file="${output_dir_per_gen}/${gen_clz}-${modeA}-${modeB}-diffs.txt"
-                        diff "${output_dir_per_gen}/${gen_clz}-${modeA}.txt" \
-                             "${output_dir_per_gen}/${gen_clz}-${modeB}.txt" \
-                             >"${diff_file}"
-                        if [[ ! -s ${diff_file} ]]; then
-                                # remove empty diff file
-                                rm -f "${diff_file}"
-                        else
-                                echo "${gen_clz}: ${modeA} differs with ${modeB}!" >&2
-                                fail_clzes+=( "${gen_clz}" )
-                        fi
-                done
-        done
-done
-
-# Print results
-if [[ ${#fail_clzes[@]} -eq 0 ]]; then
-        echo "All passed!"
-else
-        echo "${fail_clzes[*]} failed! Potential JIT bugs!" >&2
+# Do differential testing for every generated program, which is
+# compiled already into ${gen_dir}, running the modes of all programs
+# on every core
+rm -fr "${output_dir}" && mkdir -p "${output_dir}"
+java -cp "${RUNNER_JAR}" sketchy.runner.Runner \
+     --programs="${gen_dir}" \
+     --classPath="${build_dir}:${JATTACK_JAR}" \
+     --modes="$( IFS=,; echo "${modes[*]}" )" \
+     --java="$( command -v java )" \
+     --javaOptions="${EXTRA_JAVA_FLAGS}" \
+     --programArgs="${n_exec_itrs}" \
+     --batchSize="${batch_size}" \
+     --outputDir="${output_dir}"
+if [[ $? -ne 0 ]]; then
+        echo "ERROR: running programs in ${gen_dir}" >&2
+        exit 1
 fi
+echo "Results are in ${output_dir}/results.csv"
@@ -1,9 +1,14 @@
 package sketchy;
 
 import sketchy.driver.SearchStrategy;
+import sketchy.output.OutputFormat;
 
+import java.math.BigInteger;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class Config {
@@ -15,6 +20,25 @@ public class Config {
 
     public static long seed = 42;
 
+    /**
+     * Determine if every hole draws from its own random stream keyed
+     * by {@link Config#seed}, the output, the trial of the output and
+     * the hole, enabled if in random style. Any output can then be
+     * regenerated alone from its output and trial, which are saved in
+     * {@link Config#randKeysFile}. See {@link sketchy.util.KeyedRand}.
+     */
+    public static boolean keyedRand = false;
+    public static String randKeysFile = "randKeys.csv";
+
+    /**
+     * The output to start from with {@link Config#keyedRand}, as if
+     * all the outputs before it were generated, and the trial of this
+     * output to start from. Outputs are then numbered up to
+     * {@link Config#nOutputs}.
+     */
+    public static int firstOutput = 1;
+    public static int firstTrial = 0;
+
     /**
      * The number of programs as output, enabled if in random style or
      * in systematic style with isExhaustive option off.
@@ -28,6 +52,102 @@ public class Config {
      */
     public static boolean isExhaustive = false;
 
+    /**
+     * The range {@code [sysBegin, sysEnd)} of indices of programs in
+     * the systematic search space to explore, enabled if in
+     * systematic style. A null {@code sysEnd} means to the end. The
+     * range lets disjoint parts of one search space go to different
+     * workers.
+     */
+    public static BigInteger sysBegin = BigInteger.ZERO;
+    public static BigInteger sysEnd = null;
+
+    /**
+     * Seconds a generated program can run in a child JVM to give
+     * feedback, and extra arguments of the child JVM, enabled if in
+     * guided style.
+     */
+    public static int guidedTimeout = 10;
+    public static List<String> guidedJvmArgs = new LinkedList<>();
+
+    /**
+     * Determine if we do swarm testing, which enables a random subset
+     * of operators and kinds of alternative expressions per generated
+     * program, enabled if in random style.
+     */
+    public static boolean swarm = false;
+
+    /**
+     * Determine if alternatives are picked with chances proportional
+     * to the numbers of programs they can give, which makes random
+     * exploration uniform over programs, enabled if in random style.
+     */
+    public static boolean uniformAlt = false;
+
+    /**
+     * The most bits of the number of programs a literal counts for
+     * with {@link Config#uniformAlt}, so alternatives with wide
+     * literals, e.g., doubles or int arrays, still leave chances to
+     * alternatives of identifiers or operators.
+     */
+    public static int maxLitSizeBits = 8;
+
+    /**
+     * Weights of random choices of operators, identifiers and free
+     * literals by name, e.g., {@code MUL} or {@code MIN_VALUE}, where
+     * free literals are picked from {@link Config#ints},
+     * {@link Config#longs} and {@link Config#doubles} against the
+     * weight of any value, named {@code *}; enabled if in random
+     * style. See {@link sketchy.driver.Weights}.
+     */
+    public static Map<String, Double> weights = new HashMap<>();
+
+    /**
+     * File of choices of holes of programs to mutate, enabled if in
+     * mutation style, which could be written by
+     * {@link Config#saveChoices}.
+     */
+    public static String corpusFile;
+
+    /**
+     * The number of programs generated per run of the sketch, where
+     * all but the first re-sample the holes that do not change how
+     * the run goes, enabled if in random style without
+     * {@link Config#avoidExceptions}, as re-sampled divisors cannot be
+     * checked against the values at the hole. See
+     * {@link sketchy.driver.FanOut}.
+     */
+    public static int fanOut = 1;
+    /**
+     * Seconds a program of fan-out can run to be checked before it is
+     * output, see {@link sketchy.driver.FanOut}.
+     */
+    public static int fanOutTimeout = 10;
+
+    /**
+     * Determine if random choices of array indices and divisors are
+     * re-picked, given values of variables at the hole, when they
+     * would throw, so generated programs mostly run their hot paths
+     * rather than exception paths; enabled if in random style.
+     */
+    public static boolean avoidExceptions = false;
+
+    /**
+     * The maximum length of an int array of unbounded length in
+     * random style, which bounds the memory a generated array takes.
+     */
+    public static int maxArrLen = 1 << 16;
+
+    /**
+     * The maximum number of elements in an array literal of a
+     * generated program. Past that many elements, a random array of
+     * unbounded length has zeros, emitted as
+     * {@code java.util.Arrays.copyOf} of a short literal, and any
+     * other random array has elements that {@code java.util.Random}
+     * generates from a seed in the literal.
+     */
+    public static int maxArrLitLen = 256;
+
     /**
      * The maximum number of times a jitted method is expected to be
      * invoked in main during experiments.
@@ -61,6 +181,18 @@ public class Config {
      */
     public static String outputDir = ".sketchy";
 
+    /**
+     * How the files in {@link Config#outputDir} are laid out.
+     */
+    public static OutputFormat outputFormat = OutputFormat.DIR;
+    public static String packFile = "programs.pack";
+
+    /**
+     * Determine if we write outputs on a thread of their own in
+     * batches.
+     */
+    public static boolean asyncOutput = false;
+
     /**
      * The postfix of output generated programs' names. A full name
      * looks like
@@ -111,12 +243,74 @@ public class Config {
      */
     public static boolean optSolverAid = true;
 
+    /**
+     * Determine if we stop saving and updating values of variables
+     * around the holes that never read or write variables, which are
+     * known from their ASTs after the first run.
+     */
+    public static boolean optSkipVarSaving = true;
+
+    /**
+     * Determine if we output programs by splicing the filled holes
+     * into the sketch printed once, rather than filling and printing
+     * the AST of every program.
+     */
+    public static boolean optSpliceOutput = true;
+
     /**
      * Determine if we do "static" generation after we are done with
      * normal generation.
      */
     public static boolean staticGen = false;
 
+    /**
+     * The number of threads to transform and compile-check programs
+     * in static generation, where 1 does it all in the main thread.
+     */
+    public static int staticGenThreads = 1;
+
+    /**
+     * Determine if we transform, compile-check and write the programs
+     * of normal generation on their own threads, while the next runs
+     * of the sketch go on in the main thread.
+     */
+    public static boolean pipeline = false;
+
+    /**
+     * Determine if we only report the size of the systematic search
+     * space without generating any program.
+     */
+    public static boolean dryRun = false;
+
+    /**
+     * Seconds between two reports of progress during generation,
+     * logged at the info level; no report if non-positive.
+     */
+    public static int progressInterval = 0;
+
+    /**
+     * Determine if we save the choices of holes of every generated
+     * program, which lets us regenerate or mutate it.
+     */
+    public static boolean saveChoices = false;
+    public static String choicesFile = "choices.txt";
+
+    /**
+     * Determine if we save every generated program as a compact
+     * record of its filled holes, see
+     * {@link sketchy.data.ProgramRecords}.
+     */
+    public static boolean saveRecords = false;
+    public static String recordsFile = "programs.rec";
+
+    /**
+     * The file of program records to output programs from, without
+     * running the sketch, and the only output to regenerate if
+     * positive.
+     */
+    public static String regenerate;
+    public static int regenerateOutput = 0;
+
     /*-------------------- Track holes -----------------------------*/
 
     // This is for us to insert probes in generated programs so we can
@@ -175,6 +369,22 @@ public class Config {
      */
     public static boolean disableOutput = false;
 
+    /**
+     * Determine if we also write the class files of every output
+     * program as compiled when checking that it compiles, i.e., not
+     * instrumented, so the program can run without compiling it
+     * again.
+     */
+    public static boolean saveClassFiles = false;
+
+    /**
+     * Determine if we write anything to {@link Config#outputDir},
+     * otherwise programs only go to
+     * {@link sketchy.driver.Driver#outputListener}, e.g., of a
+     * {@link sketchy.driver.Generator}.
+     */
+    public static boolean writeFiles = true;
+
     /**
      * If true, mimic execution of generated programs, which means
      * doing hash and checksum and print out, with full iterations.
@@ -13,9 +13,14 @@ import sketchy.ast.visitor.Z3ExprBuilder;
 import sketchy.data.Data;
 import sketchy.driver.Driver;
 import sketchy.exception.InvokedFromNotDriverException;
+import sketchy.guided.Guidance;
+import sketchy.guided.Mutator;
 import sketchy.log.Log;
+import sketchy.util.KeyedRand;
 import sketchy.util.Z3Util;
 
+import java.math.BigInteger;
+
 /**
  * Abstract class for all nodes.
  * @param <T> the type of value evaluated from this node, which could
@@ -119,6 +124,18 @@ public abstract class Node<T> implements Visitable {
     public final void staticEval(int holedId) {
         identifier = holedId;
         Data.setCurrHoleId(holedId);
+        keyRand();
+        stepRand();
+        saveJavaStrInCache();
+    }
+
+    /**
+     * Steps this filled hole to a next random choice without running
+     * the sketch, where candidates inferred in the run, e.g.,
+     * identifiers, stay the same, and saves its string representation.
+     */
+    public final void resample() {
+        Data.setCurrHoleId(identifier);
         stepRand();
         saveJavaStrInCache();
     }
@@ -143,6 +160,7 @@ public abstract class Node<T> implements Visitable {
         }
         case RANDOM: {
             // Explore next random choice for this hole independently
+            keyRand();
             stepRand();
             break;
         }
@@ -152,12 +170,38 @@ public abstract class Node<T> implements Visitable {
             stepSys();
             break;
         }
+        case GUIDED: {
+            // Explore a choice for this hole biased by feedback from
+            // the JIT compilers
+            BigInteger idx = Guidance.pick(identifier, itr().size());
+            if (idx == null) {
+                stepRand();
+            } else {
+                itr().seek(idx);
+            }
+            break;
+        }
+        case MUTATION: {
+            // Explore a small change from a program in the corpus
+            Mutator.step(identifier, this);
+            break;
+        }
         default:
             throw new RuntimeException("Unrecognized search strategy: "
                     + Config.ss + "!");
         }
     }
 
+    /**
+     * Restart the random stream at this hole of the current trial of
+     * the next output, if the stream is keyed.
+     */
+    private void keyRand() {
+        if (Driver.rand instanceof KeyedRand) {
+            ((KeyedRand) Driver.rand).key(Data.outputCount + 1, Data.repeatedTrials, identifier);
+        }
+    }
+
     /**
      * Step to next systematic choice.
      */
@@ -200,6 +244,8 @@ public abstract class Node<T> implements Visitable {
         switch (Config.ss) {
         case SYSTEMATIC:
         case SMART:
+        case GUIDED:
+        case MUTATION:
             return itr().hasNext();
         case RANDOM:
             return hasRandChoice();
@@ -215,6 +261,28 @@ public abstract class Node<T> implements Visitable {
     // TODO: maybe we can use a visitor
     public abstract boolean hasRandChoice();
 
+    /**
+     * Returns the number of programs random exploration can give from
+     * this node, used to weight alternatives.
+     */
+    // TODO: maybe we can use a visitor
+    public abstract BigInteger randSize();
+
+    /**
+     * Returns the number of choices of a literal, at most
+     * 2^{@link Config#maxLitSizeBits}.
+     */
+    protected static BigInteger capLitSize(BigInteger size) {
+        return size.min(BigInteger.ONE.shiftLeft(Config.maxLitSizeBits));
+    }
+
+    /**
+     * Returns if any choice of this node reads or writes variables,
+     * which needs their values at runtime.
+     */
+    // TODO: maybe we can use a visitor
+    public abstract boolean usesVars();
+
     protected abstract T evaluate();
 
     /**
@@ -1,13 +1,17 @@
 package sketchy.ast.exp;
 
-import sketchy.ast.exp.iterator.Itr;
-import sketchy.ast.exp.iterator.LitItr;
+import sketchy.Config;
+import sketchy.ast.Node;
+import sketchy.ast.exp.iterator.AltItr;
 import sketchy.ast.visitor.Visitor;
 import sketchy.driver.Driver;
+import sketchy.driver.Swarm;
 import sketchy.util.UniqueList;
 
+import java.math.BigInteger;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Alternative expression.
@@ -20,6 +24,11 @@ public class AltExp<T> extends Exp<T> {
 
     private boolean emptyPruned;
 
+    /**
+     * Cumulative sizes of random choices of alternatives.
+     */
+    private BigInteger[] cumSizes;
+
     public AltExp(List<Exp<T>> exps) {
         this.exps = new UniqueList<>(exps);
         this.exp = null;
@@ -29,9 +38,14 @@ public class AltExp<T> extends Exp<T> {
     @Override
     public void stepRand() {
         removeEmptyExps();
-        // TODO: consider if we need uniform distribution of choices
-        //  inside each expression rather than of expressions.
-        exp = exps.pick(Driver.rand);
+        if (Config.swarm) {
+            exp = Swarm.pick(exps, Object::getClass);
+        } else if (Config.uniformAlt) {
+            // Uniform over programs rather than over expressions.
+            exp = exps.get(Driver.rand.nextWeightedIndex(cumSizes()));
+        } else {
+            exp = exps.pick(Driver.rand);
+        }
         exp.stepRand();
     }
 
@@ -46,37 +60,28 @@ public class AltExp<T> extends Exp<T> {
     }
 
     @Override
-    protected void setItr() {
-        removeEmptyExps();
-        itr = new LitItr<>(exps) {
-
-            private Itr currItr;
-
-            @Override
-            public void next() {
-                super.next();
-                if (currItr == null || !currItr.hasNext()) {
-                    exp = iterator.next();
-                    currItr = exp.itr();
-                }
-                currItr.next();
-            }
+    public BigInteger randSize() {
+        BigInteger[] sizes = cumSizes();
+        return sizes[sizes.length - 1];
+    }
 
-            @Override
-            public void reset() {
-                super.reset();
-                currItr = null;
-                for (Exp<T> exp : exps) {
-                    exp.itr().reset();
-                }
+    @Override
+    public boolean usesVars() {
+        for (Exp<T> e : exps) {
+            if (e.usesVars()) {
+                return true;
             }
+        }
+        return false;
+    }
 
+    @Override
+    protected void setItr() {
+        removeEmptyExps();
+        itr = new AltItr(exps.stream().map(Node::itr).collect(Collectors.toList())) {
             @Override
-            public boolean hasNext() {
-                if (isReset()) {
-                    return iterator.hasNext();
-                }
-                return iterator.hasNext() || currItr.hasNext();
+            protected void onAlt(int idx) {
+                exp = exps.get(idx);
             }
         };
     }
@@ -105,4 +110,17 @@ public class AltExp<T> extends Exp<T> {
         exps = new UniqueList<>(nonEmptyExps);
         emptyPruned = true;
     }
+
+    private BigInteger[] cumSizes() {
+        if (cumSizes == null) {
+            removeEmptyExps();
+            cumSizes = new BigInteger[exps.size()];
+            BigInteger sum = BigInteger.ZERO;
+            for (int i = 0; i < exps.size(); i++) {
+                sum = sum.add(exps.get(i).randSize());
+                cumSizes[i] = sum;
+            }
+        }
+        return cumSizes;
+    }
 }
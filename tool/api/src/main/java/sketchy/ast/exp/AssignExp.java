@@ -4,6 +4,8 @@ import sketchy.ast.exp.iterator.ChainItr;
 import sketchy.ast.nodetypes.NodeWithSideEffect;
 import sketchy.ast.visitor.Visitor;
 
+import java.math.BigInteger;
+
 public class AssignExp<T> extends Exp<T> implements NodeWithSideEffect<T> {
 
     private final LHSExp<T> target;
@@ -36,6 +38,16 @@ public class AssignExp<T> extends Exp<T> implements NodeWithSideEffect<T> {
         return target.hasRandChoice() && value.hasRandChoice();
     }
 
+    @Override
+    public BigInteger randSize() {
+        return target.randSize().multiply(value.randSize());
+    }
+
+    @Override
+    public boolean usesVars() {
+        return target.usesVars() || value.usesVars();
+    }
+
     @Override
     public void accept(Visitor v) {
         if (v.visit(this)) {
@@ -1,11 +1,13 @@
 package sketchy.ast.exp;
 
+import sketchy.Config;
 import sketchy.ast.nodetypes.NodeWithOperator;
 import sketchy.ast.exp.iterator.ChainItr;
 import sketchy.ast.operator.AriOp;
 import sketchy.ast.operator.OpNode;
 import sketchy.ast.visitor.Visitor;
 
+import java.math.BigInteger;
 import java.util.List;
 
 /**
@@ -41,6 +43,12 @@ public class BAriExp<T extends Number> extends Exp<T> implements NodeWithOperato
         left.stepRand();
         right.stepRand();
         op.stepRand();
+        if (Config.avoidExceptions
+                && (op.getOp() == AriOp.DIV || op.getOp() == AriOp.MOD)) {
+            // Integral division by zero throws.
+            stepRandUntilSafe(right, r -> !(r instanceof Integer || r instanceof Long)
+                    || r.longValue() != 0);
+        }
     }
 
     @Override
@@ -48,6 +56,16 @@ public class BAriExp<T extends Number> extends Exp<T> implements NodeWithOperato
         return left.hasRandChoice() && right.hasRandChoice() && op.hasRandChoice();
     }
 
+    @Override
+    public BigInteger randSize() {
+        return left.randSize().multiply(right.randSize()).multiply(op.randSize());
+    }
+
+    @Override
+    public boolean usesVars() {
+        return left.usesVars() || right.usesVars();
+    }
+
     @Override
     public void accept(Visitor v) {
         if (v.visit(this)) {
@@ -6,6 +6,8 @@ import sketchy.ast.visitor.Visitor;
 import sketchy.driver.Driver;
 import sketchy.util.UniqueList;
 
+import java.math.BigInteger;
+
 /**
  * Boolean literal expression.
  */
@@ -35,9 +37,8 @@ public class BoolVal extends Exp<Boolean> implements TerminalNode<Boolean> {
     protected void setItr() {
         itr = new LitItr<>(vals) {
             @Override
-            public void next() {
-                super.next();
-                val = iterator.next();
+            protected void onValue(Boolean value) {
+                val = value;
             }
         };
     }
@@ -52,6 +53,16 @@ public class BoolVal extends Exp<Boolean> implements TerminalNode<Boolean> {
         return true;
     }
 
+    @Override
+    public BigInteger randSize() {
+        return BigInteger.valueOf(2);
+    }
+
+    @Override
+    public boolean usesVars() {
+        return false;
+    }
+
     @Override
     public void accept(Visitor v) {
         if (v.visit(this)) {
@@ -1,11 +1,14 @@
 package sketchy.ast.exp;
 
+import sketchy.Config;
 import sketchy.ast.exp.iterator.LitItr;
 import sketchy.ast.nodetypes.TerminalNode;
 import sketchy.ast.visitor.Visitor;
 import sketchy.driver.Driver;
+import sketchy.driver.Weights;
 import sketchy.util.UniqueList;
 
+import java.math.BigInteger;
 import java.util.List;
 
 /**
@@ -76,16 +79,15 @@ public class DoubleVal extends Exp<Double> implements TerminalNode<Double> {
         }
         itr = new LitItr<>(vals) {
             @Override
-            public void next() {
-                super.next();
-                val = iterator.next(); } };
+            protected void onValue(Double value) {
+                val = value; } };
     }
 
     @Override
     public void stepRand() {
         val = isBounded ?
                 Driver.rand.nextDouble(low, high) :
-                Driver.rand.nextDouble();
+                Weights.pickLiteral(Config.doubles, Driver.rand::nextDouble);
     }
 
     @Override
@@ -93,6 +95,33 @@ public class DoubleVal extends Exp<Double> implements TerminalNode<Double> {
         return true;
     }
 
+    @Override
+    public BigInteger randSize() {
+        // A random double takes one of 2^53 values in [0, 1), and
+        // then a sign if unbounded, or a place in the range, which has
+        // fewer doubles if narrow.
+        BigInteger nUnits = BigInteger.ONE.shiftLeft(53);
+        if (!isBounded) {
+            return capLitSize(nUnits.shiftLeft(1).add(BigInteger.valueOf(Config.doubles.size())));
+        }
+        BigInteger nInRange = BigInteger.valueOf(ordinal(high)).subtract(BigInteger.valueOf(ordinal(low)));
+        return capLitSize(nInRange.min(nUnits));
+    }
+
+    /**
+     * Returns the order of a double among all doubles, where the next
+     * double has the next ordinal.
+     */
+    private static long ordinal(double d) {
+        long bits = Double.doubleToLongBits(d);
+        return bits < 0 ? -(bits & Long.MAX_VALUE) : bits;
+    }
+
+    @Override
+    public boolean usesVars() {
+        return false;
+    }
+
     @Override
     public void accept(Visitor v) {
         if (v.visit(this)) {
@@ -2,6 +2,9 @@ package sketchy.ast.exp;
 
 import sketchy.ast.Node;
 import sketchy.ast.visitor.EvalVisitor;
+import sketchy.ast.visitor.SideEffectChecker;
+
+import java.util.function.Predicate;
 
 /**
  * Abstract class for all expressions.
@@ -9,6 +12,9 @@ import sketchy.ast.visitor.EvalVisitor;
  */
 public abstract class Exp<T> extends Node<T> {
 
+    /* Times to step a sub-expression to avoid an exception. */
+    private static final int MAX_SAFE_TRIALS = 10;
+
     /**
      * Really evaluate.
      */
@@ -18,4 +24,29 @@ public abstract class Exp<T> extends Node<T> {
         accept(v);
         return (T) v.getResult();
     }
+
+    /**
+     * Steps the given sub-expression randomly until its value given
+     * the current memory is safe, for at most
+     * {@link #MAX_SAFE_TRIALS} times, so the generated program is
+     * less likely to throw. A sub-expression with side effects is
+     * left as it is since trying it would apply the effects.
+     */
+    protected static <S> void stepRandUntilSafe(Exp<S> sub, Predicate<S> isSafe) {
+        for (int i = 0; i < MAX_SAFE_TRIALS; i++) {
+            SideEffectChecker checker = new SideEffectChecker();
+            sub.accept(checker);
+            if (checker.hasSideEffect()) {
+                return;
+            }
+            try {
+                if (isSafe.test(sub.evaluate())) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // Throws anyway.
+            }
+            sub.stepRand();
+        }
+    }
 }
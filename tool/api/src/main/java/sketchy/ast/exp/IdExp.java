@@ -5,9 +5,10 @@ import sketchy.ast.exp.iterator.LitItr;
 import sketchy.ast.nodetypes.NodeWithSideEffect;
 import sketchy.ast.nodetypes.TerminalNode;
 import sketchy.data.Data;
-import sketchy.driver.Driver;
+import sketchy.driver.Weights;
 import sketchy.util.UniqueList;
 
+import java.math.BigInteger;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -55,16 +56,15 @@ public abstract class IdExp<T> extends LHSExp<T>
     protected void setItr() {
         itr = new LitItr<>(ids()) {
             @Override
-            public void next() {
-                super.next();
-                setId(iterator.next());
+            protected void onValue(String value) {
+                setId(value);
             }
         };
     }
 
     @Override
     public void stepRand() {
-        setId(ids().pick(Driver.rand));
+        setId(Weights.pick(ids()));
     }
 
     @Override
@@ -72,6 +72,16 @@ public abstract class IdExp<T> extends LHSExp<T>
         return !ids().isEmpty();
     }
 
+    @Override
+    public BigInteger randSize() {
+        return BigInteger.valueOf(ids().size());
+    }
+
+    @Override
+    public boolean usesVars() {
+        return true;
+    }
+
     public abstract Class<?> getIdType();
 
     private UniqueList<String> ids() {
@@ -4,6 +4,8 @@ import sketchy.ast.nodetypes.TerminalNode;
 import sketchy.ast.exp.iterator.ImItr;
 import sketchy.ast.visitor.Visitor;
 
+import java.math.BigInteger;
+
 /**
  * Immutable boolean literal expression.
  */
@@ -39,6 +41,16 @@ public class ImBoolVal extends Exp<Boolean>
         return true;
     }
 
+    @Override
+    public BigInteger randSize() {
+        return BigInteger.ONE;
+    }
+
+    @Override
+    public boolean usesVars() {
+        return false;
+    }
+
     @Override
     public void accept(Visitor v) {
         if (v.visit(this)) {
@@ -4,6 +4,8 @@ import sketchy.ast.nodetypes.TerminalNode;
 import sketchy.ast.exp.iterator.ImItr;
 import sketchy.ast.visitor.Visitor;
 
+import java.math.BigInteger;
+
 /**
  * Immutable int literal expression.
  */
@@ -40,6 +42,16 @@ public final class ImIntVal extends Exp<Integer>
         return true;
     }
 
+    @Override
+    public BigInteger randSize() {
+        return BigInteger.ONE;
+    }
+
+    @Override
+    public boolean usesVars() {
+        return false;
+    }
+
     @Override
     public void accept(Visitor v) {
         if (v.visit(this)) {
@@ -1,8 +1,8 @@
 package sketchy.ast.exp;
 
-import sketchy.ast.exp.iterator.ChainItr;
+import sketchy.Config;
+import sketchy.ast.exp.iterator.DigitItr;
 import sketchy.ast.exp.iterator.ExpItr;
-import sketchy.ast.exp.iterator.Itr;
 import sketchy.ast.exp.iterator.LitItr;
 import sketchy.ast.exp.iterator.RangeItr;
 import sketchy.ast.nodetypes.TerminalNode;
@@ -10,17 +10,35 @@ import sketchy.ast.visitor.Visitor;
 import sketchy.driver.Driver;
 import sketchy.util.UniqueList;
 
-import java.util.ArrayList;
+import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 public class IntArrVal extends Exp<int[]> implements TerminalNode<int[]> {
 
+    /* Beyond this many bits, the number of choices is left unknown. */
+    private static final int MAX_SIZE_BITS = 1 << 16;
+
+    /* Mean len of a random array of unbounded len. */
+    private static final double MEAN_RAND_LEN = 16;
+
+    /* One in this many random arrays of unbounded len have a boundary len. */
+    private static final int BOUNDARY_LEN_CHANCE = 4;
+
     private UniqueList<Integer> lenChoices;
     private UniqueList<Integer> elemChoices;
 
     private int[] val;
     private int len;
 
+    /*
+     * Seed of the elements past the literal of a random array, which
+     * java.util.Random generates the same in the driver and in the
+     * output program, or null if the literal has all elements.
+     */
+    private Long tailSeed;
+
     /* Bounds. */
     private final boolean isLenBounded;
     private int lenLow;
@@ -99,7 +117,29 @@ public class IntArrVal extends Exp<int[]> implements TerminalNode<int[]> {
     public String asStr() {
         if (val == null)
             return "null";
-        int iMax = val.length - 1;
+        if (tailSeed != null) {
+            String tail = "new java.util.Random(" + tailSeed + "L).ints("
+                    + (val.length - Config.maxArrLitLen)
+                    + (isElemBounded ? ", " + elemLow + ", " + elemHigh : "") + ")";
+            return "java.util.stream.IntStream.concat(java.util.stream.IntStream.of("
+                    + literalOf(Config.maxArrLitLen) + "), " + tail + ").toArray()";
+        }
+        if (val.length > Config.maxArrLitLen) {
+            // Leave trailing zeros out of the literal.
+            int n = val.length;
+            while (n > 0 && val[n - 1] == 0)
+                n--;
+            if (n < val.length)
+                return "java.util.Arrays.copyOf(" + literalOf(n) + ", " + val.length + ")";
+        }
+        return literalOf(val.length);
+    }
+
+    /**
+     * Returns the literal of the first n elements.
+     */
+    private String literalOf(int n) {
+        int iMax = n - 1;
         if (iMax == -1)
             return "new int[]{}";
 
@@ -117,54 +157,48 @@ public class IntArrVal extends Exp<int[]> implements TerminalNode<int[]> {
     protected void setItr() {
         itr = new ExpItr() {
 
-            private final Itr lenItr = isLenBounded ?
+            private final DigitItr lenItr = isLenBounded ?
                     new RangeItr(lenLow, lenHigh) {
                         @Override
-                        public void next() {
-                            super.next();
-                            len = (int) getCurrent(); } } :
+                        protected void onValue(long value) {
+                            len = (int) value;
+                        }
+                    } :
                     new LitItr<>(lenChoices) {
                         @Override
-                        public void next() {
-                            super.next();
-                            len = iterator.next(); } };
-            private ChainItr elemItrs;
+                        protected void onValue(Integer value) {
+                            len = value;
+                        }
+                    };
+
+            /* Radix of every element, as an unsigned long. */
+            private final long elemRadix = isElemBounded ?
+                    (long) elemHigh - elemLow :
+                    elemChoices.size();
+
+            /* Digits of elements, where the last one changes fastest. */
+            private long[] elemDigits = new long[0];
+
+            /* Number of elements whose digits are at their maximum. */
+            private int numMaxed;
 
             @Override
             public void next() {
+                boolean wasReset = isReset();
                 super.next();
                 // iteration order: len then elem, low index first
-                if (lenItr.isReset() || elemItrs == null || !elemItrs.hasNext()) {
-                    // Advance lenItr
+                if (wasReset || numMaxed == len) {
                     lenItr.next();
-
-                    // Initialize val
-                    val = new int[len];
-
-                    // Initialize elemItrs with len
-                    List<Itr> elemItrList = new ArrayList<>(len);
-                    for (int i = 0; i < len; i++) {
-                        int elemIndex = i;
-                        Itr elemItr = isElemBounded ?
-                                new RangeItr(elemLow, elemHigh) {
-                                    @Override
-                                    public void next() {
-                                        super.next();
-                                        val[elemIndex] = (int) getCurrent(); } } :
-                                new LitItr<>(elemChoices) {
-                                    @Override
-                                    public void next() {
-                                        super.next();
-                                        val[elemIndex] = iterator.next(); } };
-                        elemItrList.add(elemItr);
-                    }
-                    elemItrs = len == 0 ? null : new ChainItr(elemItrList);
+                    startLen();
+                    return;
                 }
-
-                if (elemItrs != null) {
-                    // Advance elemItrs
-                    elemItrs.next();
+                // Carry from the last element.
+                int i = len - 1;
+                while (elemDigits[i] == elemRadix - 1) {
+                    setElem(i, 0);
+                    i--;
                 }
+                setElem(i, elemDigits[i] + 1);
             }
 
             @Override
@@ -172,14 +206,118 @@ public class IntArrVal extends Exp<int[]> implements TerminalNode<int[]> {
                 if (isReset()) {
                     return lenItr.hasNext();
                 }
-                return lenItr.hasNext() || (elemItrs != null && elemItrs.hasNext());
+                return lenItr.hasNext() || numMaxed < len;
             }
 
             @Override
             public void reset() {
                 super.reset();
                 lenItr.reset();
-                elemItrs = null;
+            }
+
+            @Override
+            public BigInteger size() {
+                if (elemRadix <= 1) {
+                    // Only one array for each len.
+                    return lenItr.size();
+                }
+                BigInteger radix = BigInteger.valueOf(elemRadix);
+                BigInteger size = BigInteger.ZERO;
+                long nLens = lenItr.size().longValue();
+                for (long d = 0; d < nLens; d++) {
+                    int l = lenAt(d);
+                    if ((long) l * radix.bitLength() > MAX_SIZE_BITS) {
+                        // Too many to be worth counting exactly.
+                        return null;
+                    }
+                    size = size.add(radix.pow(l));
+                }
+                return size;
+            }
+
+            @Override
+            public void seek(BigInteger index) {
+                checkIndex(index);
+                if (size() == null) {
+                    super.seek(index);
+                    return;
+                }
+                setReset(false);
+                if (elemRadix <= 1) {
+                    lenItr.seek(index);
+                    startLen();
+                    return;
+                }
+                BigInteger radix = BigInteger.valueOf(elemRadix);
+                long d = 0;
+                BigInteger count;
+                while (index.compareTo(count = radix.pow(lenAt(d))) >= 0) {
+                    index = index.subtract(count);
+                    d++;
+                }
+                lenItr.seek(BigInteger.valueOf(d));
+                startLen();
+                for (int i = len - 1; i >= 0; i--) {
+                    BigInteger[] qr = index.divideAndRemainder(radix);
+                    setElem(i, qr[1].longValue());
+                    index = qr[0];
+                }
+            }
+
+            @Override
+            public BigInteger index() {
+                if (isReset() || size() == null) {
+                    return null;
+                }
+                long d = lenItr.getDigit();
+                if (elemRadix <= 1) {
+                    return BigInteger.valueOf(d);
+                }
+                BigInteger radix = BigInteger.valueOf(elemRadix);
+                BigInteger index = BigInteger.ZERO;
+                for (long i = 0; i < d; i++) {
+                    index = index.add(radix.pow(lenAt(i)));
+                }
+                BigInteger elems = BigInteger.ZERO;
+                for (int i = 0; i < len; i++) {
+                    elems = elems.multiply(radix).add(BigInteger.valueOf(elemDigits[i]));
+                }
+                return index.add(elems);
+            }
+
+            /**
+             * Starts a new len with all element digits at zero.
+             */
+            private void startLen() {
+                val = new int[len];
+                tailSeed = null;
+                if (elemDigits.length < len) {
+                    elemDigits = new long[len];
+                }
+                numMaxed = 0;
+                for (int i = 0; i < len; i++) {
+                    elemDigits[i] = -1;
+                    setElem(i, 0);
+                }
+            }
+
+            private void setElem(int i, long digit) {
+                if (elemDigits[i] == elemRadix - 1) {
+                    numMaxed--;
+                }
+                if (digit == elemRadix - 1) {
+                    numMaxed++;
+                }
+                elemDigits[i] = digit;
+                val[i] = isElemBounded ?
+                        (int) (elemLow + digit) :
+                        elemChoices.get((int) digit);
+            }
+
+            private int lenAt(long digit) {
+                return isLenBounded ?
+                        (int) (lenLow + digit) :
+                        lenChoices.get((int) digit);
             }
         };
     }
@@ -188,12 +326,20 @@ public class IntArrVal extends Exp<int[]> implements TerminalNode<int[]> {
     public void stepRand() {
         len = isLenBounded ?
                 Driver.rand.nextInt(lenLow, lenHigh) :
-                Driver.rand.nextNonNegativeInt();
-        val = new int[len];
-        for (int i = 0; i < len; i++) {
-            val[i] = isElemBounded ?
-                    Driver.rand.nextInt(elemLow, elemHigh) :
-                    Driver.rand.nextInt();
+                nextRandLen();
+        int n = Math.min(len, Config.maxArrLitLen);
+        int[] elems = isElemBounded ?
+                Driver.rand.nextInts(n, elemLow, elemHigh) :
+                Driver.rand.nextInts(n);
+        val = Arrays.copyOf(elems, len);
+        tailSeed = null;
+        if (len > n && !hasZeroTail()) {
+            tailSeed = Driver.rand.nextLong();
+            Random tailRand = new Random(tailSeed);
+            int[] tail = isElemBounded ?
+                    tailRand.ints(len - n, elemLow, elemHigh).toArray() :
+                    tailRand.ints(len - n).toArray();
+            System.arraycopy(tail, 0, val, n, tail.length);
         }
     }
 
@@ -202,6 +348,41 @@ public class IntArrVal extends Exp<int[]> implements TerminalNode<int[]> {
         return true;
     }
 
+    @Override
+    public BigInteger randSize() {
+        BigInteger radix = isElemBounded ?
+                BigInteger.valueOf((long) elemHigh - elemLow) :
+                BigInteger.ONE.shiftLeft(Integer.SIZE);
+        long low = isLenBounded ? lenLow : 0;
+        long high = isLenBounded ? lenHigh : (long) Config.maxArrLen + 1;
+        if (radix.compareTo(BigInteger.ONE) <= 0) {
+            // Only one array for each len.
+            return capLitSize(BigInteger.valueOf(high - low));
+        }
+        // Lens beyond nRandElems differ only in len.
+        long nRandElems = hasZeroTail() ? Config.maxArrLitLen : Integer.MAX_VALUE;
+        long maxRandElems = Math.min(high - 1, nRandElems);
+        if (maxRandElems * radix.bitLength() > MAX_SIZE_BITS) {
+            // Too many to be worth counting exactly, but still more
+            // than any literal counts for.
+            return capLitSize(BigInteger.ONE.shiftLeft(MAX_SIZE_BITS));
+        }
+        BigInteger size = BigInteger.ZERO;
+        for (long l = low; l < high && l <= nRandElems; l++) {
+            size = size.add(radix.pow((int) l));
+        }
+        if (high - 1 > nRandElems) {
+            long nLens = high - Math.max(low, nRandElems + 1);
+            size = size.add(radix.pow((int) nRandElems).multiply(BigInteger.valueOf(nLens)));
+        }
+        return capLitSize(size);
+    }
+
+    @Override
+    public boolean usesVars() {
+        return false;
+    }
+
     @Override
     public void accept(Visitor v) {
         if (v.visit(this)) {
@@ -209,6 +390,37 @@ public class IntArrVal extends Exp<int[]> implements TerminalNode<int[]> {
         }
     }
 
+    /**
+     * Returns a random len of an array of unbounded len, which is
+     * mostly short but sometimes at a boundary, at most
+     * {@link Config#maxArrLen}.
+     */
+    private static int nextRandLen() {
+        if (Driver.rand.nextInt(BOUNDARY_LEN_CHANCE) == 0) {
+            switch (Driver.rand.nextInt(3)) {
+            case 0:
+                return 0;
+            case 1:
+                return Math.min(1, Config.maxArrLen);
+            default:
+                return Config.maxArrLen;
+            }
+        }
+        return Math.min(Driver.rand.nextGeometric(MEAN_RAND_LEN), Config.maxArrLen);
+    }
+
+    /**
+     * Returns true if the elements of a random array past
+     * {@link Config#maxArrLitLen} are zero, which only arrays of
+     * unbounded len can have zero, so templates that bound the len
+     * get the same random elements as ever. Otherwise, those elements
+     * are random from a seed, which the literal has instead of them.
+     */
+    private boolean hasZeroTail() {
+        boolean canBeZero = !isElemBounded || (elemLow <= 0 && 0 < elemHigh);
+        return !isLenBounded && canBeZero;
+    }
+
     private static void checkLenBounds(int lenLow, int lenHigh) {
         if (lenLow < 0) {
             throw new IllegalArgumentException("Bounds of len must be non-negative!");
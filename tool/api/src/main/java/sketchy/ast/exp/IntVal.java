@@ -1,12 +1,15 @@
 package sketchy.ast.exp;
 
+import sketchy.Config;
 import sketchy.ast.nodetypes.TerminalNode;
 import sketchy.ast.exp.iterator.LitItr;
 import sketchy.ast.exp.iterator.RangeItr;
 import sketchy.ast.visitor.Visitor;
 import sketchy.driver.Driver;
+import sketchy.driver.Weights;
 import sketchy.util.UniqueList;
 
+import java.math.BigInteger;
 import java.util.List;
 
 /**
@@ -72,21 +75,19 @@ public class IntVal extends Exp<Integer> implements TerminalNode<Integer> {
         itr = isBounded ?
                 new RangeItr(low, high) {
                     @Override
-                    public void next() {
-                        super.next();
-                        val = (int) getCurrent(); } } :
+                    protected void onValue(long value) {
+                        val = (int) value; } } :
                 new LitItr<>(vals) {
                     @Override
-                    public void next() {
-                        super.next();
-                        val = iterator.next(); } };
+                    protected void onValue(Integer value) {
+                        val = value; } };
     }
 
     @Override
     public void stepRand() {
         val = isBounded ?
                 Driver.rand.nextInt(low, high) :
-                Driver.rand.nextInt();
+                Weights.pickLiteral(Config.ints, Driver.rand::nextInt);
     }
 
     @Override
@@ -94,6 +95,18 @@ public class IntVal extends Exp<Integer> implements TerminalNode<Integer> {
         return true;
     }
 
+    @Override
+    public BigInteger randSize() {
+        return capLitSize(isBounded ?
+                BigInteger.valueOf((long) high - low) :
+                BigInteger.ONE.shiftLeft(Integer.SIZE));
+    }
+
+    @Override
+    public boolean usesVars() {
+        return false;
+    }
+
     @Override
     public void accept(Visitor v) {
         if (v.visit(this)) {
@@ -1,12 +1,15 @@
 package sketchy.ast.exp;
 
+import sketchy.Config;
 import sketchy.ast.exp.iterator.LitItr;
 import sketchy.ast.exp.iterator.RangeItr;
 import sketchy.ast.nodetypes.TerminalNode;
 import sketchy.ast.visitor.Visitor;
 import sketchy.driver.Driver;
+import sketchy.driver.Weights;
 import sketchy.util.UniqueList;
 
+import java.math.BigInteger;
 import java.util.List;
 
 /**
@@ -72,21 +75,19 @@ public class LongVal extends Exp<Long> implements TerminalNode<Long> {
         itr = isBounded ?
                 new RangeItr(low, high) {
                     @Override
-                    public void next() {
-                        super.next();
-                        val = getCurrent(); } } :
+                    protected void onValue(long value) {
+                        val = value; } } :
                 new LitItr<>(vals) {
                     @Override
-                    public void next() {
-                        super.next();
-                        val = iterator.next(); } };
+                    protected void onValue(Long value) {
+                        val = value; } };
     }
 
     @Override
     public void stepRand() {
         val = isBounded ?
                 Driver.rand.nextLong(low, high) :
-                Driver.rand.nextLong();
+                Weights.pickLiteral(Config.longs, Driver.rand::nextLong);
     }
 
     @Override
@@ -94,6 +95,18 @@ public class LongVal extends Exp<Long> implements TerminalNode<Long> {
         return true;
     }
 
+    @Override
+    public BigInteger randSize() {
+        return capLitSize(isBounded ?
+                BigInteger.valueOf(high).subtract(BigInteger.valueOf(low)) :
+                BigInteger.ONE.shiftLeft(Long.SIZE));
+    }
+
+    @Override
+    public boolean usesVars() {
+        return false;
+    }
+
     @Override
     public void accept(Visitor v) {
         if (v.visit(this)) {
@@ -3,6 +3,8 @@ package sketchy.ast.exp;
 import sketchy.ast.nodetypes.NodeWithSideEffect;
 import sketchy.ast.visitor.Visitor;
 
+import java.math.BigInteger;
+
 public class PreIncExp<N extends Number> extends Exp<N>
         implements NodeWithSideEffect<N> {
 
@@ -32,6 +34,16 @@ public class PreIncExp<N extends Number> extends Exp<N>
         return id.hasRandChoice();
     }
 
+    @Override
+    public BigInteger randSize() {
+        return id.randSize();
+    }
+
+    @Override
+    public boolean usesVars() {
+        return id.usesVars();
+    }
+
     @Override
     public void accept(Visitor v) {
         if (v.visit(this)) {
@@ -10,6 +10,7 @@ import sketchy.data.Data;
 import sketchy.driver.Driver;
 
 import java.lang.reflect.Array;
+import java.math.BigInteger;
 
 /**
  * Reference array access expression, evaluated to an instance of the
@@ -79,10 +80,17 @@ public class RefArrAccessExp<E, A> extends LHSExp<E> implements NodeWithSideEffe
     @Override
     public void stepRand() {
         id.stepRand();
+        if (Config.avoidExceptions) {
+            // No index of an empty array is valid.
+            stepRandUntilSafe(id, arr -> Array.getLength(arr) > 0);
+        }
         if (inferIndices) {
             setIndexFromCurrentId();
         }
         index.stepRand();
+        if (Config.avoidExceptions && !inferIndices) {
+            stepRandUntilSafe(index, i -> 0 <= i && i < Array.getLength(id.evaluate()));
+        }
     }
 
     @Override
@@ -90,6 +98,19 @@ public class RefArrAccessExp<E, A> extends LHSExp<E> implements NodeWithSideEffe
         return id.hasRandChoice() && (inferIndices || index.hasRandChoice());
     }
 
+    @Override
+    public BigInteger randSize() {
+        // Inferred indices depend on the array picked at runtime.
+        return inferIndices ?
+                id.randSize() :
+                id.randSize().multiply(index.randSize());
+    }
+
+    @Override
+    public boolean usesVars() {
+        return id.usesVars() || (!inferIndices && index.usesVars());
+    }
+
     @Override
     public void accept(Visitor v) {
         if (v.visit(this)) {
@@ -6,6 +6,7 @@ import sketchy.ast.operator.OpNode;
 import sketchy.ast.operator.RelOp;
 import sketchy.ast.visitor.Visitor;
 
+import java.math.BigInteger;
 import java.util.List;
 
 /**
@@ -47,6 +48,16 @@ public class RelExp<N extends Number> extends Exp<Boolean> implements NodeWithOp
         return left.hasRandChoice() && right.hasRandChoice() && op.hasRandChoice();
     }
 
+    @Override
+    public BigInteger randSize() {
+        return left.randSize().multiply(right.randSize()).multiply(op.randSize());
+    }
+
+    @Override
+    public boolean usesVars() {
+        return left.usesVars() || right.usesVars();
+    }
+
     @Override
     public void accept(Visitor v) {
         if (v.visit(this)) {
@@ -6,6 +6,7 @@ import sketchy.ast.operator.OpNode;
 import sketchy.ast.operator.ShiftOp;
 import sketchy.ast.visitor.Visitor;
 
+import java.math.BigInteger;
 import java.util.List;
 
 /**
@@ -48,6 +49,16 @@ public class ShiftExp<N extends Number> extends Exp<N> implements NodeWithOperat
         return left.hasRandChoice() && right.hasRandChoice() && op.hasRandChoice();
     }
 
+    @Override
+    public BigInteger randSize() {
+        return left.randSize().multiply(right.randSize()).multiply(op.randSize());
+    }
+
+    @Override
+    public boolean usesVars() {
+        return left.usesVars() || right.usesVars();
+    }
+
     @Override
     public void accept(Visitor v) {
         if (v.visit(this)) {
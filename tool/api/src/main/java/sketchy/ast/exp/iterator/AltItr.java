@@ -0,0 +1,123 @@
+package sketchy.ast.exp.iterator;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Alternative iterator to enumerate all the choices of the first
+ * iterator, then all of the second one, and so on.
+ */
+public abstract class AltItr extends ExpItr {
+
+    private final List<Itr> itrs;
+
+    private int idx;
+
+    private Itr currItr;
+
+    protected AltItr(List<Itr> itrs) {
+        this.itrs = itrs;
+        reset();
+    }
+
+    @Override
+    public void next() {
+        super.next();
+        if (currItr == null || !currItr.hasNext()) {
+            select(idx + 1);
+            currItr.reset();
+        }
+        currItr.next();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        idx = -1;
+        currItr = null;
+        for (Itr itr : itrs) {
+            itr.reset();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (isReset()) {
+            return !itrs.isEmpty();
+        }
+        return idx < itrs.size() - 1 || currItr.hasNext();
+    }
+
+    @Override
+    public BigInteger size() {
+        BigInteger size = BigInteger.ZERO;
+        for (Itr itr : itrs) {
+            BigInteger s = itr.size();
+            if (s == null) {
+                return null;
+            }
+            size = size.add(s);
+        }
+        return size;
+    }
+
+    @Override
+    public void seek(BigInteger index) {
+        if (size() == null) {
+            super.seek(index);
+            return;
+        }
+        checkIndex(index);
+        setReset(false);
+        for (int i = 0; i < itrs.size(); i++) {
+            BigInteger s = itrs.get(i).size();
+            if (index.compareTo(s) < 0) {
+                select(i);
+                currItr.seek(index);
+                return;
+            }
+            index = index.subtract(s);
+        }
+    }
+
+    @Override
+    public BigInteger index() {
+        if (isReset() || currItr.index() == null) {
+            return null;
+        }
+        BigInteger index = currItr.index();
+        for (int i = 0; i < idx; i++) {
+            BigInteger s = itrs.get(i).size();
+            if (s == null) {
+                return null;
+            }
+            index = index.add(s);
+        }
+        return index;
+    }
+
+    @Override
+    public void collectLeaves(List<Itr> leaves) {
+        if (!isReset()) {
+            currItr.collectLeaves(leaves);
+        }
+    }
+
+    /**
+     * Returns the index of the current alternative.
+     */
+    public int getIdx() {
+        return idx;
+    }
+
+    private void select(int idx) {
+        this.idx = idx;
+        currItr = itrs.get(idx);
+        onAlt(idx);
+    }
+
+    /**
+     * Invoked when we step to a different alternative.
+     */
+    protected abstract void onAlt(int idx);
+}
@@ -1,24 +1,48 @@
 package sketchy.ast.exp.iterator;
 
-import java.util.Iterator;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
- * Chain iterator to concatenate more than one iterator.
+ * Chain iterator to concatenate more than one iterator, which
+ * enumerates the cartesian product of them as a mixed-radix counter:
+ * the last iterator is the least significant digit.
+ * <p>
+ * Nested chain iterators are flattened into one array of digits, so
+ * {@link #hasNext()} is constant time and {@link #next()} is amortized
+ * constant time without allocation. A chain iterator absorbed into
+ * another one must not be stepped on its own.
  */
 public class ChainItr extends ExpItr {
 
-    private final Itr itr;
+    /**
+     * All digits with more than one choice, the most significant
+     * first.
+     */
+    private final Itr[] digits;
+
+    /**
+     * Digits with only one choice, which never change once stepped.
+     */
+    private final Itr[] fixedDigits;
+
+    /**
+     * Whether each digit has next, cached to avoid asking again.
+     */
+    private final boolean[] hasNexts;
+
+    /**
+     * The number of digits that have next.
+     */
+    private int nHasNexts;
 
     /**
      * Constructor taking varargs.
      */
     public ChainItr(Itr itr0, Itr itr1, Itr... itrs) {
-        CombItr combItr = new CombItr(itr0, itr1);
-        for (Itr itr : itrs) {
-            combItr = new CombItr(combItr, itr);
-        }
-        this.itr = combItr;
+        this(concat(itr0, itr1, itrs));
     }
 
     /**
@@ -28,33 +52,153 @@ public class ChainItr extends ExpItr {
         if (itrs.isEmpty()) {
             throw new IllegalArgumentException("itrs cannot be empty!");
         }
-        if (itrs.size() == 1) {
-            this.itr = itrs.get(0);
-            return;
-        }
-        // itrs.size() >= 2
-        Iterator<Itr> it = itrs.iterator();
-        CombItr combItr = new CombItr(it.next(), it.next());
-        while (it.hasNext()) {
-            combItr = new CombItr(combItr, it.next());
+        List<Itr> digitList = new ArrayList<>();
+        List<Itr> fixedDigitList = new ArrayList<>();
+        for (Itr itr : itrs) {
+            if (itr instanceof ChainItr) {
+                ChainItr chain = (ChainItr) itr;
+                digitList.addAll(Arrays.asList(chain.digits));
+                fixedDigitList.addAll(Arrays.asList(chain.fixedDigits));
+            } else if (BigInteger.ONE.equals(itr.size())) {
+                fixedDigitList.add(itr);
+            } else {
+                digitList.add(itr);
+            }
         }
-        this.itr = combItr;
+        this.digits = digitList.toArray(new Itr[0]);
+        this.fixedDigits = fixedDigitList.toArray(new Itr[0]);
+        this.hasNexts = new boolean[digits.length];
+        reset();
     }
 
     @Override
     public void next() {
+        boolean wasReset = isReset();
         super.next();
-        itr.next();
+        if (wasReset) {
+            for (Itr d : fixedDigits) {
+                d.next();
+            }
+            for (int i = 0; i < digits.length; i++) {
+                digits[i].next();
+                updateHasNext(i);
+            }
+            return;
+        }
+        // Carry from the least significant digit
+        int i = digits.length - 1;
+        while (!hasNexts[i]) {
+            digits[i].reset();
+            digits[i].next();
+            updateHasNext(i);
+            i--;
+        }
+        digits[i].next();
+        updateHasNext(i);
     }
 
     @Override
     public void reset() {
         super.reset();
-        itr.reset();
+        for (Itr d : fixedDigits) {
+            d.reset();
+        }
+        nHasNexts = 0;
+        for (int i = 0; i < digits.length; i++) {
+            digits[i].reset();
+            hasNexts[i] = false;
+            updateHasNext(i);
+        }
     }
 
     @Override
     public boolean hasNext() {
-        return itr.hasNext();
+        if (isReset()) {
+            // Every digit has to have at least one choice
+            for (Itr d : fixedDigits) {
+                if (!d.hasNext()) {
+                    return false;
+                }
+            }
+            return nHasNexts == digits.length;
+        }
+        return nHasNexts > 0;
+    }
+
+    @Override
+    public BigInteger size() {
+        BigInteger size = BigInteger.ONE;
+        for (Itr d : digits) {
+            BigInteger s = d.size();
+            if (s == null) {
+                return null;
+            }
+            size = size.multiply(s);
+        }
+        return size;
+    }
+
+    @Override
+    public void seek(BigInteger index) {
+        BigInteger[] sizes = new BigInteger[digits.length];
+        for (int i = 0; i < digits.length; i++) {
+            sizes[i] = digits[i].size();
+            if (sizes[i] == null) {
+                // Cannot decompose the index
+                super.seek(index);
+                return;
+            }
+        }
+        checkIndex(index);
+        setReset(false);
+        for (Itr d : fixedDigits) {
+            d.seek(BigInteger.ZERO);
+        }
+        for (int i = digits.length - 1; i >= 0; i--) {
+            BigInteger[] qr = index.divideAndRemainder(sizes[i]);
+            digits[i].seek(qr[1]);
+            updateHasNext(i);
+            index = qr[0];
+        }
+    }
+
+    @Override
+    public BigInteger index() {
+        if (isReset()) {
+            return null;
+        }
+        BigInteger index = BigInteger.ZERO;
+        for (Itr d : digits) {
+            BigInteger size = d.size();
+            BigInteger i = d.index();
+            if (size == null || i == null) {
+                return null;
+            }
+            index = index.multiply(size).add(i);
+        }
+        return index;
+    }
+
+    @Override
+    public void collectLeaves(List<Itr> leaves) {
+        for (Itr d : digits) {
+            d.collectLeaves(leaves);
+        }
+    }
+
+    private void updateHasNext(int i) {
+        boolean hasNext = digits[i].hasNext();
+        if (hasNext != hasNexts[i]) {
+            hasNexts[i] = hasNext;
+            nHasNexts += hasNext ? 1 : -1;
+        }
+    }
+
+    private static List<Itr> concat(Itr itr0, Itr itr1, Itr... itrs) {
+        List<Itr> list = new ArrayList<>(itrs.length + 2);
+        list.add(itr0);
+        list.add(itr1);
+        list.addAll(Arrays.asList(itrs));
+        return list;
     }
 }
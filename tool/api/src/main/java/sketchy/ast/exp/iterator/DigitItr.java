@@ -0,0 +1,71 @@
+package sketchy.ast.exp.iterator;
+
+import java.math.BigInteger;
+
+/**
+ * Iterator for a single digit in a mixed-radix number, which steps
+ * through {@code 0, 1, ..., radix - 1}. The radix is treated as an
+ * unsigned long so it can cover any range of longs.
+ */
+public abstract class DigitItr extends ExpItr {
+
+    private final long radix;
+
+    private long digit;
+
+    protected DigitItr(long radix) {
+        this.radix = radix;
+    }
+
+    @Override
+    public void next() {
+        boolean wasReset = isReset();
+        super.next();
+        digit = wasReset ? 0 : digit + 1;
+        onDigit(digit);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (isReset()) {
+            return radix != 0;
+        }
+        return Long.compareUnsigned(digit, radix - 1) < 0;
+    }
+
+    @Override
+    public BigInteger size() {
+        return toUnsignedBigInteger(radix);
+    }
+
+    @Override
+    public void seek(BigInteger index) {
+        checkIndex(index);
+        setReset(false);
+        digit = index.longValue();
+        onDigit(digit);
+    }
+
+    @Override
+    public BigInteger index() {
+        return isReset() ? null : toUnsignedBigInteger(digit);
+    }
+
+    /**
+     * Returns the current digit, which is meaningless when reset.
+     */
+    public long getDigit() {
+        return digit;
+    }
+
+    /**
+     * Invoked whenever the digit changes, where subclasses update
+     * the value of the node this iterator belongs to.
+     */
+    protected abstract void onDigit(long digit);
+
+    static BigInteger toUnsignedBigInteger(long l) {
+        BigInteger b = BigInteger.valueOf(l & Long.MAX_VALUE);
+        return l < 0 ? b.setBit(Long.SIZE - 1) : b;
+    }
+}
@@ -2,6 +2,9 @@ package sketchy.ast.exp.iterator;
 
 import sketchy.ast.exp.Exp;
 
+import java.math.BigInteger;
+import java.util.List;
+
 /**
  * Abstract class for all iterators used by {@link Exp}.
  */
@@ -29,4 +32,62 @@ public abstract class ExpItr implements Itr {
     public boolean isReset() {
         return isReset;
     }
+
+    protected void setReset(boolean isReset) {
+        this.isReset = isReset;
+    }
+
+    /**
+     * Unknown by default.
+     */
+    @Override
+    public BigInteger size() {
+        return null;
+    }
+
+    /**
+     * Steps one by one by default, which is linear to the given
+     * index; subclasses knowing their sizes should do better.
+     */
+    @Override
+    public void seek(BigInteger index) {
+        checkIndex(index);
+        reset();
+        for (BigInteger i = BigInteger.ZERO; i.compareTo(index) <= 0; i = i.add(BigInteger.ONE)) {
+            next();
+        }
+    }
+
+    /**
+     * Unknown by default.
+     */
+    @Override
+    public BigInteger index() {
+        return null;
+    }
+
+    /**
+     * This iterator itself by default.
+     */
+    @Override
+    public void collectLeaves(List<Itr> leaves) {
+        BigInteger size = size();
+        if (!isReset() && size != null && size.compareTo(BigInteger.ONE) > 0) {
+            leaves.add(this);
+        }
+    }
+
+    /**
+     * Throws an exception if the given index is out of the range of
+     * choices, as far as we know.
+     */
+    protected void checkIndex(BigInteger index) {
+        if (index.signum() < 0) {
+            throw new IllegalArgumentException("index must be non-negative!");
+        }
+        BigInteger size = size();
+        if (size != null && index.compareTo(size) >= 0) {
+            throw new IllegalArgumentException("index " + index + " is out of " + size + " choices!");
+        }
+    }
 }
@@ -4,10 +4,12 @@ package sketchy.ast.exp.iterator;
  * Iterator for an immutable AST node that contains only one value
  * never changed.
  */
-public class ImItr extends ExpItr {
+public class ImItr extends DigitItr {
 
-    @Override
-    public boolean hasNext() {
-        return isReset();
+    public ImItr() {
+        super(1);
     }
+
+    @Override
+    protected void onDigit(long digit) {}
 }
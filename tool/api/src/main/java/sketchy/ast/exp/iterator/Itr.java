@@ -1,5 +1,8 @@
 package sketchy.ast.exp.iterator;
 
+import java.math.BigInteger;
+import java.util.List;
+
 /**
  * Interface implemented by all iterators.
  */
@@ -12,4 +15,32 @@ public interface Itr {
     boolean hasNext();
 
     boolean isReset();
+
+    /**
+     * Returns the exact number of choices this iterator enumerates,
+     * or null if the number is unknown, e.g., it depends on values
+     * only known at runtime.
+     */
+    BigInteger size();
+
+    /**
+     * Moves this iterator directly to the choice at the given index
+     * (starting with 0), as if {@link #reset()} and then
+     * {@code index + 1} times {@link #next()} were invoked.
+     */
+    void seek(BigInteger index);
+
+    /**
+     * Returns the index of the current choice, or null if this
+     * iterator is reset or cannot tell.
+     */
+    BigInteger index();
+
+    /**
+     * Adds to the given list the iterators of the smallest parts of
+     * the current choice that can change on their own, e.g., an
+     * operator or a literal, which have more than one choice and know
+     * how many.
+     */
+    void collectLeaves(List<Itr> leaves);
 }
@@ -1,31 +1,27 @@
 package sketchy.ast.exp.iterator;
 
-import java.util.Iterator;
 import java.util.List;
 
 /**
  * Iterator for a literal node such as IntVal, IntId, OpNode.
  * @param <T>
  */
-public abstract class LitItr<T> extends ExpItr {
+public abstract class LitItr<T> extends DigitItr {
 
     private final List<T> values;
 
-    protected Iterator<T> iterator;
-
     protected LitItr(List<T> values) {
+        super(values.size());
         this.values = values;
-        this.iterator = this.values.iterator();
     }
 
     @Override
-    public void reset() {
-        super.reset();
-        iterator = values.iterator();
+    protected final void onDigit(long digit) {
+        onValue(values.get((int) digit));
     }
 
-    @Override
-    public boolean hasNext() {
-        return iterator.hasNext();
-    }
+    /**
+     * Invoked with the value we step to.
+     */
+    protected abstract void onValue(T value);
 }
@@ -3,47 +3,37 @@ package sketchy.ast.exp.iterator;
 /**
  * Range iterator with a given range of integers.
  */
-public class RangeItr extends ExpItr {
+public class RangeItr extends DigitItr {
 
     private final long low;
-    private final long high;
-
-    private long current;
 
     public RangeItr(long low, long high) {
-        if (low >= high) {
-            throw new IllegalArgumentException("low must be less than high!");
-        }
-        if (low == Long.MIN_VALUE) {
-            // TODO: support it
-            throw new IllegalArgumentException("low must be strictly greater than Long.MIN_VALUE!");
-        }
+        super(checkAndGetRadix(low, high));
         this.low = low;
-        this.high = high;
-        reset();
     }
 
     @Override
-    public void next() {
-        super.next();
-        current++;
+    protected final void onDigit(long digit) {
+        onValue(low + digit);
     }
 
-    @Override
-    public boolean hasNext() {
-        return current < high - 1;
-    }
-
-    @Override
-    public void reset() {
-        super.reset();
-        current = low - 1L; // long
-    }
+    /**
+     * Invoked with the value we step to.
+     */
+    protected void onValue(long value) {}
 
     public long getCurrent() {
         if (isReset()) {
             throw new RuntimeException("current is unavailable when reset.");
         }
-        return current;
+        return low + getDigit();
+    }
+
+    private static long checkAndGetRadix(long low, long high) {
+        if (low >= high) {
+            throw new IllegalArgumentException("low must be less than high!");
+        }
+        // Could overflow but is fine as an unsigned long.
+        return high - low;
     }
 }
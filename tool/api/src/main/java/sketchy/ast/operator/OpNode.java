@@ -1,11 +1,14 @@
 package sketchy.ast.operator;
 
+import sketchy.Config;
 import sketchy.ast.Node;
 import sketchy.ast.exp.iterator.LitItr;
 import sketchy.ast.visitor.Visitor;
-import sketchy.driver.Driver;
+import sketchy.driver.Swarm;
+import sketchy.driver.Weights;
 import sketchy.util.UniqueList;
 
+import java.math.BigInteger;
 import java.util.List;
 
 /**
@@ -32,16 +35,17 @@ public class OpNode<T extends Op> extends Node<Void> {
     protected void setItr() {
         itr = new LitItr<T>(ops) {
             @Override
-            public void next() {
-                super.next();
-                op = iterator.next();
+            protected void onValue(T value) {
+                op = value;
             }
         };
     }
 
     @Override
     public void stepRand() {
-        op = ops.pick(Driver.rand);
+        op = Config.swarm ?
+                Swarm.pick(ops, o -> o) :
+                Weights.pick(ops);
     }
 
     @Override
@@ -49,6 +53,16 @@ public class OpNode<T extends Op> extends Node<Void> {
         return !ops.isEmpty();
     }
 
+    @Override
+    public BigInteger randSize() {
+        return BigInteger.valueOf(ops.size());
+    }
+
+    @Override
+    public boolean usesVars() {
+        return false;
+    }
+
     @Override
     public void accept(Visitor v) {
         if (v.visit(this)) {
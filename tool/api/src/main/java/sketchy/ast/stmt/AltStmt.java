@@ -1,13 +1,16 @@
 package sketchy.ast.stmt;
 
-import sketchy.ast.exp.iterator.Itr;
-import sketchy.ast.exp.iterator.LitItr;
+import sketchy.Config;
+import sketchy.ast.Node;
+import sketchy.ast.exp.iterator.AltItr;
 import sketchy.ast.visitor.Visitor;
 import sketchy.driver.Driver;
 import sketchy.util.UniqueList;
 
+import java.math.BigInteger;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Alternative statement.
@@ -23,6 +26,11 @@ public class AltStmt extends Stmt {
 
     private boolean emptyPruned;
 
+    /**
+     * Cumulative sizes of random choices of alternatives.
+     */
+    private BigInteger[] cumSizes;
+
     public AltStmt(List<Stmt> stmts) {
         this.stmts = new UniqueList<>(stmts);
         this.stmt = null;
@@ -32,9 +40,9 @@ public class AltStmt extends Stmt {
     @Override
     public void stepRand() {
         removeEmptyStmts();
-        // TODO: consider if we need uniform distribution of choices
-        //  inside each statement rather than of statement.
-        stmt = stmts.pick(Driver.rand);
+        stmt = Config.uniformAlt ?
+                stmts.get(Driver.rand.nextWeightedIndex(cumSizes())) :
+                stmts.pick(Driver.rand);
         stmt.stepRand();
     }
 
@@ -49,37 +57,28 @@ public class AltStmt extends Stmt {
     }
 
     @Override
-    protected void setItr() {
-        removeEmptyStmts();
-        itr = new LitItr<>(stmts) {
-
-            private Itr currItr;
-
-            @Override
-            public void next() {
-                super.next();
-                if (currItr == null || !currItr.hasNext()) {
-                    stmt = iterator.next();
-                    currItr = stmt.itr();
-                }
-                currItr.next();
-            }
+    public BigInteger randSize() {
+        BigInteger[] sizes = cumSizes();
+        return sizes[sizes.length - 1];
+    }
 
-            @Override
-            public void reset() {
-                super.reset();
-                currItr = null;
-                for (Stmt s : stmts) {
-                    s.itr().reset();
-                }
+    @Override
+    public boolean usesVars() {
+        for (Stmt s : stmts) {
+            if (s.usesVars()) {
+                return true;
             }
+        }
+        return false;
+    }
 
+    @Override
+    protected void setItr() {
+        removeEmptyStmts();
+        itr = new AltItr(stmts.stream().map(Node::itr).collect(Collectors.toList())) {
             @Override
-            public boolean hasNext() {
-                if (isReset()) {
-                    return iterator.hasNext();
-                }
-                return iterator.hasNext() || currItr.hasNext();
+            protected void onAlt(int idx) {
+                stmt = stmts.get(idx);
             }
         };
     }
@@ -105,4 +104,17 @@ public class AltStmt extends Stmt {
         stmts = new UniqueList<>(nonEmptyStmts);
         emptyPruned = true;
     }
+
+    private BigInteger[] cumSizes() {
+        if (cumSizes == null) {
+            removeEmptyStmts();
+            cumSizes = new BigInteger[stmts.size()];
+            BigInteger sum = BigInteger.ZERO;
+            for (int i = 0; i < stmts.size(); i++) {
+                sum = sum.add(stmts.get(i).randSize());
+                cumSizes[i] = sum;
+            }
+        }
+        return cumSizes;
+    }
 }
@@ -4,6 +4,7 @@ import sketchy.ast.Node;
 import sketchy.ast.exp.iterator.ChainItr;
 import sketchy.ast.visitor.Visitor;
 
+import java.math.BigInteger;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -43,6 +44,25 @@ public class BlockStmt extends Stmt {
         return true;
     }
 
+    @Override
+    public BigInteger randSize() {
+        BigInteger size = BigInteger.ONE;
+        for (Stmt s : stmts) {
+            size = size.multiply(s.randSize());
+        }
+        return size;
+    }
+
+    @Override
+    public boolean usesVars() {
+        for (Stmt s : stmts) {
+            if (s.usesVars()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void accept(Visitor v) {
         v.visitStmt(this);
@@ -3,6 +3,8 @@ package sketchy.ast.stmt;
 import sketchy.ast.exp.Exp;
 import sketchy.ast.visitor.Visitor;
 
+import java.math.BigInteger;
+
 /**
  * Expression as a statement.
  */
@@ -29,6 +31,16 @@ public class ExprStmt extends Stmt {
         return exp.hasRandChoice();
     }
 
+    @Override
+    public BigInteger randSize() {
+        return exp.randSize();
+    }
+
+    @Override
+    public boolean usesVars() {
+        return exp.usesVars();
+    }
+
     @Override
     public void accept(Visitor v) {
         v.visitStmt(this);
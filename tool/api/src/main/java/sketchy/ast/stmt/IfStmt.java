@@ -4,6 +4,8 @@ import sketchy.ast.exp.Exp;
 import sketchy.ast.exp.iterator.ChainItr;
 import sketchy.ast.visitor.Visitor;
 
+import java.math.BigInteger;
+
 /**
  * If Statement, with a condition expression, a then statement and an
  * optional else statement.
@@ -49,6 +51,19 @@ public class IfStmt extends Stmt {
                 && (!hasElseBranch() || elseStmt.hasRandChoice());
     }
 
+    @Override
+    public BigInteger randSize() {
+        BigInteger size = condition.randSize().multiply(thenStmt.randSize());
+        return hasElseBranch() ? size.multiply(elseStmt.randSize()) : size;
+    }
+
+    @Override
+    public boolean usesVars() {
+        return condition.usesVars()
+                || thenStmt.usesVars()
+                || (hasElseBranch() && elseStmt.usesVars());
+    }
+
     @Override
     public void accept(Visitor v) {
         v.visitStmt(this);
@@ -3,6 +3,8 @@ package sketchy.ast.stmt;
 import sketchy.ast.exp.iterator.ChainItr;
 import sketchy.ast.visitor.Visitor;
 
+import java.math.BigInteger;
+
 public class TryStmt<T extends Throwable> extends Stmt {
 
     // TODO: we hardcode catch (<exceptionType> e) for now
@@ -63,6 +65,20 @@ public class TryStmt<T extends Throwable> extends Stmt {
                 && finallyBlock.hasRandChoice();
     }
 
+    @Override
+    public BigInteger randSize() {
+        return tryBlock.randSize()
+                .multiply(catchBlock.randSize())
+                .multiply(finallyBlock.randSize());
+    }
+
+    @Override
+    public boolean usesVars() {
+        return tryBlock.usesVars()
+                || catchBlock.usesVars()
+                || finallyBlock.usesVars();
+    }
+
     @Override
     public void accept(Visitor v) {
         v.visitStmt(this);
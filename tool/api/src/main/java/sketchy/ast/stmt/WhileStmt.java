@@ -4,6 +4,8 @@ import sketchy.ast.exp.Exp;
 import sketchy.ast.exp.iterator.ChainItr;
 import sketchy.ast.visitor.Visitor;
 
+import java.math.BigInteger;
+
 /**
  * While statement, with a condition expression and a body statement.
  */
@@ -34,6 +36,16 @@ public class WhileStmt extends Stmt {
         return condition.hasRandChoice() && body.hasRandChoice();
     }
 
+    @Override
+    public BigInteger randSize() {
+        return condition.randSize().multiply(body.randSize());
+    }
+
+    @Override
+    public boolean usesVars() {
+        return condition.usesVars() || body.usesVars();
+    }
+
     @Override
     public void accept(Visitor v) {
         v.visitStmt(this);
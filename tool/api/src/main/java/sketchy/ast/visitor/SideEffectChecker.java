@@ -0,0 +1,29 @@
+package sketchy.ast.visitor;
+
+import sketchy.ast.exp.AssignExp;
+import sketchy.ast.exp.PreIncExp;
+
+/**
+ * Visitor to check if evaluating the current choice of an AST node
+ * changes any variable.
+ */
+public class SideEffectChecker extends Visitor {
+
+    private boolean hasSideEffect = false;
+
+    public boolean hasSideEffect() {
+        return hasSideEffect;
+    }
+
+    @Override
+    public <N extends Number> boolean visit(PreIncExp<N> node) {
+        hasSideEffect = true;
+        return false;
+    }
+
+    @Override
+    public <T> boolean visit(AssignExp<T> node) {
+        hasSideEffect = true;
+        return false;
+    }
+}
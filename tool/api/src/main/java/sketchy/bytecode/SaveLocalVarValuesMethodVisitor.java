@@ -21,6 +21,11 @@ public class SaveLocalVarValuesMethodVisitor extends MethodVisitor {
     private final String m_fullMethodName;
     private final Deque<Integer> m_offsets;
     private final boolean m_isStatic;
+    /**
+     * The int constant pushed by the previous instruction, if any,
+     * which is the hole id right before {@code eval()}.
+     */
+    private Integer m_lastIntConst;
 
     public SaveLocalVarValuesMethodVisitor(
             MethodVisitor mv,
@@ -47,12 +52,61 @@ public class SaveLocalVarValuesMethodVisitor extends MethodVisitor {
                 // && owner.equals(Constants.EXP_CLZ_INTERN_NAME)
                 && name.equals(Constants.EVAL_METH_NAME)
                 && desc.equals(Constants.EVAL_METH_DESC)) {
+            Integer holeId = m_lastIntConst;
+            m_lastIntConst = null;
+            if (holeId != null && Data.isTheHoleWithoutVars(holeId)) {
+                // Keep offsets aligned with the remaining evals
+                if (m_offsets.poll() == null) {
+                    throw new RuntimeException("Queue of evals is empty!");
+                }
+                super.visitMethodInsn(opcode, owner, name, desc, isInterface);
+                return;
+            }
             wrapEval(opcode, owner, name, desc, isInterface);
             return;
         }
+        m_lastIntConst = null;
         super.visitMethodInsn(opcode, owner, name, desc, isInterface);
     }
 
+    @Override
+    public void visitInsn(int opcode) {
+        m_lastIntConst = opcode >= Opcodes.ICONST_M1 && opcode <= Opcodes.ICONST_5 ?
+                opcode - Opcodes.ICONST_0 : null;
+        super.visitInsn(opcode);
+    }
+
+    @Override
+    public void visitIntInsn(int opcode, int operand) {
+        m_lastIntConst = opcode == Opcodes.BIPUSH || opcode == Opcodes.SIPUSH ?
+                operand : null;
+        super.visitIntInsn(opcode, operand);
+    }
+
+    @Override
+    public void visitLdcInsn(Object value) {
+        m_lastIntConst = value instanceof Integer ? (Integer) value : null;
+        super.visitLdcInsn(value);
+    }
+
+    @Override
+    public void visitVarInsn(int opcode, int var) {
+        m_lastIntConst = null;
+        super.visitVarInsn(opcode, var);
+    }
+
+    @Override
+    public void visitFieldInsn(int opcode, String owner, String name, String desc) {
+        m_lastIntConst = null;
+        super.visitFieldInsn(opcode, owner, name, desc);
+    }
+
+    @Override
+    public void visitTypeInsn(int opcode, String type) {
+        m_lastIntConst = null;
+        super.visitTypeInsn(opcode, type);
+    }
+
     private void wrapEval(
             int opcode,
             String owner,
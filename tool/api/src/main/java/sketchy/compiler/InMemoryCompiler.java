@@ -14,10 +14,10 @@ import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
 import javax.tools.ToolProvider;
 import java.io.File;
-import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -31,13 +31,27 @@ import java.util.Set;
 public class InMemoryCompiler {
 
     private final JavaCompiler compiler;
+    /**
+     * Shared by all compilations, so the classes on the class path
+     * are looked up only once.
+     */
+    private final StandardJavaFileManager stdFileManager;
     private final ClassLoader parentCl;
     private final List<String> options;
 
     private ClassBytes classBytes;
 
+    /*
+     * Bytes of every class as last compiled and as transformed from
+     * those, so we transform only the classes that change between
+     * compilations, e.g., the class with holes filled in hot filling.
+     */
+    private final Map<String, byte[]> compiledBytes = new HashMap<>();
+    private final Map<String, byte[]> transformedBytes = new HashMap<>();
+
     public InMemoryCompiler() {
         compiler = ToolProvider.getSystemJavaCompiler();
+        stdFileManager = compiler.getStandardFileManager(null, null, null);
         parentCl = this.getClass().getClassLoader();
         String classPath = getClassPath(parentCl);
         options = new LinkedList<>(Arrays.asList("-g:vars")); // debugging information with local variables
@@ -53,7 +67,6 @@ public class InMemoryCompiler {
     public ClassBytes compile(String className, String code)
             throws CompilationException {
         DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
-        StandardJavaFileManager stdFileManager = compiler.getStandardFileManager(diagnostics, null, null);
         JavaSourceFromString file = new JavaSourceFromString(className, code);
         ClassFileManager fileManager = new ClassFileManager(stdFileManager);
 
@@ -67,12 +80,8 @@ public class InMemoryCompiler {
             printDiagnosticInfo(diagnostics);
             throw new CompilationException("Compilation failed: " + className);
         }
+        // Do not close fileManager, which would close stdFileManager
         classBytes = fileManager.getClassBytes();
-        try {
-            fileManager.close();
-        } catch (IOException e) {
-            throw new RuntimeException("IO error when closing fileManager: " + e);
-        }
         return classBytes;
     }
 
@@ -107,10 +116,26 @@ public class InMemoryCompiler {
         for (Map.Entry<String, byte[]> entry : classBytes.entrySet()) {
             String className = entry.getKey();
             byte[] bytes = entry.getValue();
-            classBytes.put(className, VariableAnalyzer.transformBytecode(className, bytes));
+            if (Arrays.equals(bytes, compiledBytes.get(className))) {
+                classBytes.put(className, transformedBytes.get(className));
+                continue;
+            }
+            byte[] transformed = VariableAnalyzer.transformBytecode(className, bytes);
+            compiledBytes.put(className, bytes);
+            transformedBytes.put(className, transformed);
+            classBytes.put(className, transformed);
         }
     }
 
+    /**
+     * Forgets the transformed bytes of all the classes, which should
+     * be invoked when the bytecode transformation changes.
+     */
+    public void resetTransformedBytes() {
+        compiledBytes.clear();
+        transformedBytes.clear();
+    }
+
     private ClassLoader newClassLoader() {
         return new InMemoryClassLoader(classBytes, parentCl);
     }
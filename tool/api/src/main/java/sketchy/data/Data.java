@@ -3,11 +3,13 @@ package sketchy.data;
 import org.objectweb.asm.Type;
 import sketchy.Config;
 import sketchy.ast.Node;
+import sketchy.ast.exp.iterator.Itr;
 import sketchy.bytecode.Symbol;
 import sketchy.bytecode.Var;
 import sketchy.util.TypeUtil;
 import sketchy.util.UniqueList;
 
+import java.math.BigInteger;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashMap;
@@ -16,6 +18,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 /**
@@ -53,6 +56,30 @@ public class Data {
         return strCache.size();
     }
 
+    /**
+     * Returns {@link Data#strCache} of the current run, which is left
+     * as it is once the next run starts with a new one.
+     */
+    public static Map<Integer, String> getStrCache() {
+        return strCache;
+    }
+
+
+    /**
+     * Returns the identifiers of the holes filled in the current run.
+     */
+    public static Set<Integer> getFilledHoles() {
+        return new TreeSet<>(strCache.keySet());
+    }
+
+    /**
+     * Continues the current run with a copy of {@link Data#strCache},
+     * so changes to it leave the one in {@link Data#pastStrCache} as
+     * it is.
+     */
+    public static void copyStrCache() {
+        strCache = new HashMap<>(strCache);
+    }
 
     public static void saveToStrCache(int holeId, String nodeStr) {
         Data.strCache.put(holeId, nodeStr);
@@ -146,6 +173,98 @@ public class Data {
 
     public static void setFirstHoleIdxThatShouldStepInNextRun() {
         firstHoleIdxThatShouldStepInNextRun = findFirstHoleToStepInNextRun();
+        sysIdx = sysIdx.add(BigInteger.ONE);
+    }
+
+    /**
+     * Index of the program of the next run in the systematic search
+     * space, which is the mixed-radix number whose digits are the
+     * choices of the holes in {@link Data#holeVector}, the first hole
+     * being the most significant.
+     * <p>
+     * The index is exact as long as every run reaches the same holes
+     * in the same order.
+     */
+    public static BigInteger sysIdx = BigInteger.ZERO;
+
+    /**
+     * Returns the index of the current choice of every hole filled in
+     * the current run, except the ones that cannot tell, by hole
+     * identifier.
+     */
+    public static Map<Integer, BigInteger> getChoicesOfFilledHoles() {
+        Map<Integer, BigInteger> choices = new TreeMap<>();
+        for (int holeId : strCache.keySet()) {
+            BigInteger idx = astCache.get(holeId).itr().index();
+            if (idx != null) {
+                choices.put(holeId, idx);
+            }
+        }
+        return choices;
+    }
+
+    /**
+     * Returns the number of programs in the systematic search space
+     * spanned by the holes explored in the current run, or null if
+     * any hole does not know its number of choices.
+     */
+    public static BigInteger getSysSpaceSize() {
+        BigInteger size = BigInteger.ONE;
+        for (int holeId : holeVector) {
+            BigInteger n = astCache.get(holeId).itr().size();
+            if (n == null) {
+                return null;
+            }
+            size = size.multiply(n);
+        }
+        return size;
+    }
+
+    /**
+     * Seeks every hole explored in the current run to the choice it
+     * has in the program with the given index of the systematic
+     * search space, so that the next run gives that program. Marks
+     * the exploration as done if the index is out of the space.
+     */
+    public static void seekHoles(BigInteger index) {
+        BigInteger[] sizes = new BigInteger[holeVector.size()];
+        BigInteger total = BigInteger.ONE;
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = countChoices(astCache.get(holeVector.get(i)).itr());
+            total = total.multiply(sizes[i]);
+        }
+        if (index.compareTo(total) >= 0) {
+            firstHoleIdxThatShouldStepInNextRun = -1;
+            return;
+        }
+        BigInteger rest = index;
+        for (int i = sizes.length - 1; i >= 0; i--) {
+            BigInteger[] qr = rest.divideAndRemainder(sizes[i]);
+            astCache.get(holeVector.get(i)).itr().seek(qr[1]);
+            rest = qr[0];
+        }
+        // No hole steps in the next run since all of them are there.
+        firstHoleIdxThatShouldStepInNextRun = holeVector.size();
+        sysIdx = index;
+    }
+
+    /**
+     * Returns the number of choices of the given iterator, stepping
+     * through all of them if the iterator does not know it, which
+     * leaves the iterator in an arbitrary state.
+     */
+    private static BigInteger countChoices(Itr itr) {
+        BigInteger size = itr.size();
+        if (size != null) {
+            return size;
+        }
+        long n = 0;
+        itr.reset();
+        while (itr.hasNext()) {
+            itr.next();
+            n++;
+        }
+        return BigInteger.valueOf(n);
     }
 
     /**
@@ -179,7 +298,8 @@ public class Data {
      * <p>
      * For systematic ss, we are done when we have explored the whole
      * search space.
-     * For random ss, we are done when we have enough outputs.
+     * For random, guided and mutation ss, we are done when we have
+     * enough outputs.
      * For smart ss, we are done when the hole with most choices has
      * explored all it has.
      */
@@ -187,13 +307,13 @@ public class Data {
         switch (Config.ss) {
         case SYSTEMATIC: {
             return firstHoleIdxThatShouldStepInNextRun == -1
-                    || (!Config.isExhaustive && outputCount == Config.nOutputs);
+                    || (Config.sysEnd != null && sysIdx.compareTo(Config.sysEnd) >= 0)
+                    || isOutputLimitReached();
         }
-        case RANDOM: {
-            return outputCount == Config.nOutputs
-                    // We stop if we do not see any new generated
-                    // program for a while, which is Config.maxRepeatedTrialsAllowed.
-                    || repeatedTrials == Config.maxRepeatedTrialsAllowed;
+        case RANDOM:
+        case GUIDED:
+        case MUTATION: {
+            return isOutputLimitReached();
         }
         case SMART: {
             // If each hole have explored all the possibilities it can,
@@ -204,7 +324,31 @@ public class Data {
             // TODO: this condition could never be satisfied in some
             //   cases due to unreachable holes.
             return holesThatHaveExploredAll.size() == getTotalNumHoles()
-                    || (!Config.isExhaustive && outputCount == Config.nOutputs);
+                    || isOutputLimitReached();
+        }
+        default:
+            throw new RuntimeException("Unrecognized search strategy: "
+                    + Config.ss + "!");
+        }
+    }
+
+    /**
+     * Returns true if we are done by the counts of outputs and
+     * repeated trials alone, regardless of the search space.
+     */
+    public static boolean isOutputLimitReached() {
+        switch (Config.ss) {
+        case SYSTEMATIC:
+        case SMART: {
+            return !Config.isExhaustive && outputCount == Config.nOutputs;
+        }
+        case RANDOM:
+        case GUIDED:
+        case MUTATION: {
+            return outputCount == Config.nOutputs
+                    // We stop if we do not see any new generated
+                    // program for a while, which is Config.maxRepeatedTrialsAllowed.
+                    || repeatedTrials == Config.maxRepeatedTrialsAllowed;
         }
         default:
             throw new RuntimeException("Unrecognized search strategy: "
@@ -255,6 +399,20 @@ public class Data {
         return holesAsConditions.contains(holeId);
     }
 
+    /**
+     * The holes where no choice reads or writes variables, so their
+     * {@code eval()} needs no values of variables at runtime.
+     */
+    private static final Set<Integer> holesWithoutVars = new HashSet<>();
+
+    public static void addToHolesWithoutVars(int holeId) {
+        holesWithoutVars.add(holeId);
+    }
+
+    public static boolean isTheHoleWithoutVars(int holeId) {
+        return holesWithoutVars.contains(holeId);
+    }
+
     /**
      * Holes that will be never reachable, where the condition is
      * unsatisfiable. Note this is different from saying a hole is
@@ -436,7 +594,7 @@ public class Data {
     }
 
     public static Set<String> getVarsOfType(Class<?> type) {
-        if (Config.staticGen) {
+        if (Config.staticGen || Config.dryRun) {
             return staticGetVarsOfType(type);
         } else {
             return getVarsOfType(type.getName());
@@ -0,0 +1,204 @@
+package sketchy.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compact binary records of generated programs, from which the
+ * programs can be output again without running the sketch.
+ * <p>
+ * A file starts with {@link #MAGIC}, {@link #VERSION} and a hash of
+ * the template. Each record is the output index and the filled holes
+ * in the order of their identifiers, all as variable-length ints,
+ * i.e., the number of holes, then for every hole the difference from
+ * the previous identifier and its fill. A fill refers to a string
+ * seen before by its index plus one, or is 0 followed by a new
+ * string (UTF-8 length and bytes), which takes the next index.
+ */
+public class ProgramRecords {
+
+    public static final int MAGIC = 0x534b5052; // "SKPR"
+    public static final int VERSION = 1;
+
+    /**
+     * Returns the hash of the template in the given file, which
+     * records must match to be regenerated from it.
+     */
+    public static long hashTemplate(String srcPath) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(Files.readAllBytes(Paths.get(srcPath)));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static class Record {
+
+        public final int output;
+        /**
+         * Maps hole identifiers to string representations of the
+         * filled holes.
+         */
+        public final Map<Integer, String> filledHoles;
+
+        public Record(int output, Map<Integer, String> filledHoles) {
+            this.output = output;
+            this.filledHoles = filledHoles;
+        }
+    }
+
+    public static class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> dict = new HashMap<>();
+
+        public Writer(Path path, long templateHash) {
+            try {
+                out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeLong(templateHash);
+                out.flush();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        public void write(int output, Map<Integer, String> filledHoles) {
+            try {
+                writeVarInt(out, output);
+                writeVarInt(out, filledHoles.size());
+                int prevId = 0;
+                for (Map.Entry<Integer, String> e : new TreeMap<>(filledHoles).entrySet()) {
+                    writeVarInt(out, e.getKey() - prevId);
+                    prevId = e.getKey();
+                    Integer idx = dict.get(e.getValue());
+                    if (idx != null) {
+                        writeVarInt(out, idx + 1);
+                    } else {
+                        dict.put(e.getValue(), dict.size());
+                        byte[] bytes = e.getValue().getBytes(StandardCharsets.UTF_8);
+                        writeVarInt(out, 0);
+                        writeVarInt(out, bytes.length);
+                        out.write(bytes);
+                    }
+                }
+                // Keep the file complete at every record
+                out.flush();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    public static class Reader implements Closeable {
+
+        private final DataInputStream in;
+        private final long templateHash;
+        private final List<String> dict = new ArrayList<>();
+
+        public Reader(Path path) {
+            try {
+                in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+                if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                    throw new RuntimeException("Not a file of program records: " + path + "!");
+                }
+                templateHash = in.readLong();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        public long getTemplateHash() {
+            return templateHash;
+        }
+
+        /**
+         * Returns the next record, or null if there is no more.
+         */
+        public Record next() {
+            try {
+                int output;
+                try {
+                    output = readVarInt(in);
+                } catch (EOFException e) {
+                    return null;
+                }
+                int n = readVarInt(in);
+                Map<Integer, String> filledHoles = new HashMap<>();
+                int id = 0;
+                for (int i = 0; i < n; i++) {
+                    id += readVarInt(in);
+                    int ref = readVarInt(in);
+                    if (ref == 0) {
+                        byte[] bytes = new byte[readVarInt(in)];
+                        in.readFully(bytes);
+                        dict.add(new String(bytes, StandardCharsets.UTF_8));
+                        ref = dict.size();
+                    }
+                    filledHoles.put(id, dict.get(ref - 1));
+                }
+                return new Record(output, filledHoles);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int val) throws IOException {
+        while ((val & ~0x7f) != 0) {
+            out.writeByte((val & 0x7f) | 0x80);
+            val >>>= 7;
+        }
+        out.writeByte(val);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int val = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int b = in.readUnsignedByte();
+            val |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return val;
+            }
+        }
+        throw new RuntimeException("Malformed variable-length int!");
+    }
+}
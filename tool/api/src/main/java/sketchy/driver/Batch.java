@@ -0,0 +1,165 @@
+package sketchy.driver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generates from many templates in one JVM, so the JDK compiler and
+ * the Z3 native library are loaded and warmed up only once.
+ * <p>
+ * Usage: {@code Batch --templates=<dir or file> [--batchThreads=N]
+ * [--outputDir=<dir>] [options of Driver...]}, where the templates
+ * are the .java files in a directory, or those listed in a file, one
+ * per line, each followed by its own options of {@link Driver}, which
+ * take precedence over the shared ones. The programs of a template
+ * go to its own directory under the output directory, named after
+ * the template class.
+ * <p>
+ * Every template runs {@link Driver} in its own class loader, see
+ * {@link TemplateRunner}, so templates can run at the same time on
+ * {@code batchThreads} threads.
+ */
+public class Batch {
+
+    private String templates;
+    private int nThreads = 1;
+    private String outputDir = ".";
+    private final List<String> sharedArgs = new ArrayList<>();
+
+    public static void main(String[] args) {
+        Batch batch = new Batch();
+        batch.parseArgs(args);
+        if (!batch.run()) {
+            throw new RuntimeException("Failed to generate from some template(s)!");
+        }
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--templates=")) {
+                templates = arg.substring("--templates=".length());
+            } else if (arg.startsWith("--batchThreads=")) {
+                nThreads = Integer.parseInt(arg.substring("--batchThreads=".length()));
+            } else if (arg.startsWith("--outputDir=")) {
+                outputDir = arg.substring("--outputDir=".length());
+            } else if (arg.startsWith("--clzName=") || arg.startsWith("--srcPath=")) {
+                throw new RuntimeException("clzName and srcPath are given by templates in batch mode!");
+            } else {
+                sharedArgs.add(arg);
+            }
+        }
+        if (templates == null) {
+            throw new RuntimeException("--templates is required!");
+        }
+        if (nThreads < 1) {
+            throw new RuntimeException("batchThreads must be positive!");
+        }
+    }
+
+    /**
+     * Returns true if we generate from all the templates without any
+     * error.
+     */
+    private boolean run() {
+        List<Template> tmpls = readTemplates();
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            List<Future<Throwable>> results = new ArrayList<>();
+            for (Template tmpl : tmpls) {
+                results.add(executor.submit(tmpl::generate));
+            }
+            int nFailed = 0;
+            for (int i = 0; i < tmpls.size(); i++) {
+                Throwable t = results.get(i).get();
+                if (t == null) {
+                    System.out.println("DONE " + tmpls.get(i).srcPath);
+                } else {
+                    System.out.println("FAILED " + tmpls.get(i).srcPath + ": " + t);
+                    nFailed++;
+                }
+            }
+            System.out.println(tmpls.size() - nFailed + "/" + tmpls.size() + " templates done");
+            return nFailed == 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<Template> readTemplates() {
+        Path path = Paths.get(templates);
+        List<Template> tmpls = new ArrayList<>();
+        try {
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.list(path)) {
+                    for (Path file : files.filter(f -> f.toString().endsWith(".java"))
+                            .sorted().collect(Collectors.toList())) {
+                        tmpls.add(new Template(file, new ArrayList<>()));
+                    }
+                }
+            } else {
+                for (String line : Files.readAllLines(path)) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    List<String> words = Arrays.asList(line.split("\\s+"));
+                    // Template paths are relative to the list
+                    Path file = path.toAbsolutePath().getParent().resolve(words.get(0));
+                    tmpls.add(new Template(file, words.subList(1, words.size())));
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (tmpls.isEmpty()) {
+            throw new RuntimeException("No template found in " + templates + "!");
+        }
+        return tmpls;
+    }
+
+    private class Template {
+
+        private final Path srcPath;
+        private final List<String> args;
+
+        private Template(Path srcPath, List<String> args) {
+            this.srcPath = srcPath.toAbsolutePath().normalize();
+            this.args = args;
+        }
+
+        /**
+         * Generates from this template and returns the error if any.
+         */
+        private Throwable generate() {
+            try {
+                String clzName = TemplateRunner.getClassName(srcPath);
+                List<String> driverArgs = new ArrayList<>();
+                driverArgs.add("--clzName=" + clzName);
+                driverArgs.add("--srcPath=" + srcPath);
+                driverArgs.add("--outputDir=" + Paths.get(outputDir, clzName.substring(clzName.lastIndexOf('.') + 1)));
+                driverArgs.addAll(sharedArgs);
+                driverArgs.addAll(args);
+                TemplateRunner.run(srcPath, clzName, driverArgs, null);
+                return null;
+            } catch (Throwable t) {
+                return t;
+            }
+        }
+    }
+}
@@ -2,9 +2,12 @@ package sketchy.driver;
 
 import sketchy.Config;
 import sketchy.log.Log;
+import sketchy.output.OutputFormat;
 import sketchy.util.IOUtil;
 import sketchy.util.Rand;
 
+import java.math.BigInteger;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Random;
 
@@ -28,7 +31,9 @@ public class Cli {
     }
 
     private static void initialize() {
-        IOUtil.createDir(Config.outputDir);
+        if (Config.writeFiles) {
+            IOUtil.createDir(Config.outputDir);
+        }
     }
 
     private static void checkConsistent() {
@@ -40,9 +45,94 @@ public class Cli {
                 && (Config.optHotFilling || Config.optSolverAid)) {
             throw new RuntimeException("optHotFilling and optSolverAid must be turned off when dynamicCollecting or saveHoleValues are turned on!");
         }
+        if ((Config.sysBegin.signum() != 0 || Config.sysEnd != null)
+                && Config.ss != SearchStrategy.SYSTEMATIC) {
+            throw new RuntimeException("sysBegin and sysEnd are only for systematic search strategy!");
+        }
+        if (Config.sysBegin.signum() < 0
+                || (Config.sysEnd != null && Config.sysBegin.compareTo(Config.sysEnd) >= 0)) {
+            throw new RuntimeException("sysBegin must be non-negative and less than sysEnd!");
+        }
+        if (Config.ss == SearchStrategy.GUIDED
+                && (Config.staticGen || Config.allowNonCompilableOutput)) {
+            throw new RuntimeException("staticGen and allowNonCompilableOutput must be turned off when guided search strategy is used!");
+        }
+        if (Config.swarm && Config.ss != SearchStrategy.RANDOM) {
+            throw new RuntimeException("swarm is only for random search strategy!");
+        }
+        if (Config.uniformAlt && Config.ss != SearchStrategy.RANDOM) {
+            throw new RuntimeException("uniformAlt is only for random search strategy!");
+        }
+        if (Config.uniformAlt && Config.swarm) {
+            throw new RuntimeException("uniformAlt and swarm cannot be used together!");
+        }
+        if (Config.maxLitSizeBits < 0 || Config.maxLitSizeBits > Long.SIZE) {
+            throw new RuntimeException("maxLitSizeBits must be between 0 and 64!");
+        }
+        if (Config.maxArrLen < 0 || Config.maxArrLitLen < 0) {
+            throw new RuntimeException("maxArrLen and maxArrLitLen must be non-negative!");
+        }
+        if (Config.fanOut < 1) {
+            throw new RuntimeException("fanOut must be positive!");
+        }
+        if (Config.fanOutTimeout < 1) {
+            throw new RuntimeException("fanOutTimeout must be positive!");
+        }
+        if (Config.fanOut > 1
+                && (Config.ss != SearchStrategy.RANDOM || Config.staticGen || Config.mimicExecution
+                    || Config.avoidExceptions)) {
+            throw new RuntimeException("fanOut is only for random search strategy without staticGen, mimicExecution or avoidExceptions!");
+        }
+        if (Config.staticGenThreads < 1) {
+            throw new RuntimeException("staticGenThreads must be positive!");
+        }
+        if (Config.staticGenThreads > 1
+                && (!Config.staticGen || Config.mimicExecution)) {
+            throw new RuntimeException("staticGenThreads is only for staticGen without mimicExecution!");
+        }
+        if (Config.pipeline
+                && (Config.ss == SearchStrategy.GUIDED || Config.staticGen || Config.mimicExecution
+                || Config.fanOut > 1 || Config.keyedRand || Config.isProfiling
+                || Config.saveHoleValues || Config.countInvalidArrIdxException)) {
+            throw new RuntimeException("pipeline does not work with guided search strategy, staticGen, mimicExecution, fanOut, keyedRand, profiling, saveHoleValues or countInvalidArrIdxException!");
+        }
+        if (Config.keyedRand
+                && (Config.ss != SearchStrategy.RANDOM || Config.fanOut > 1 || Config.staticGenThreads > 1)) {
+            throw new RuntimeException("keyedRand is only for random search strategy without fanOut or staticGenThreads!");
+        }
+        if ((Config.firstOutput != 1 || Config.firstTrial != 0) && !Config.keyedRand) {
+            throw new RuntimeException("firstOutput and firstTrial need keyedRand!");
+        }
+        if (Config.firstOutput < 1 || Config.firstOutput > Config.nOutputs
+                || Config.firstTrial < 0 || Config.firstTrial >= Config.maxRepeatedTrialsAllowed) {
+            throw new RuntimeException("firstOutput must be in [1, nOutputs] and firstTrial in [0, maxRepeatedTrialsAllowed)!");
+        }
+        if (Config.avoidExceptions
+                && (Config.ss != SearchStrategy.RANDOM || Config.staticGen)) {
+            throw new RuntimeException("avoidExceptions is only for random search strategy without staticGen!");
+        }
+        if (!Config.weights.isEmpty() && Config.ss != SearchStrategy.RANDOM) {
+            throw new RuntimeException("weights are only for random search strategy!");
+        }
+        if (Config.ss == SearchStrategy.MUTATION && Config.corpusFile == null) {
+            throw new RuntimeException("--corpus is required for mutation search strategy!");
+        }
+        if (Config.saveChoices
+                && (Config.ss == SearchStrategy.RANDOM || Config.staticGen)) {
+            throw new RuntimeException("saveChoices does not work with random search strategy or staticGen!");
+        }
+        if (Config.regenerate != null && Config.saveRecords) {
+            throw new RuntimeException("regenerate and saveRecords cannot be used together!");
+        }
         if (Config.dynamicCollecting && !Config.isProfiling) {
             throw new RuntimeException("isProfiling must be turned on when dynamicCollecting is turned on!");
         }
+        if (!Config.writeFiles
+                && (Config.ss == SearchStrategy.GUIDED || Config.mimicExecution || Config.disableOutput
+                || Config.keyedRand || Config.isProfiling || Config.saveHoleValues || Config.saveChoices
+                || Config.saveRecords || Config.saveClassFiles || Config.countInvalidArrIdxException)) {
+            throw new RuntimeException("writeFiles cannot be turned off with guided search strategy, mimicExecution, disableOutput, keyedRand, profiling, saveHoleValues, saveChoices, saveRecords, saveClassFiles or countInvalidArrIdxException, which write files!");
+        }
     }
 
     private void readSingleArg(String arg) {
@@ -84,6 +174,14 @@ public class Cli {
                 Config.ss = SearchStrategy.SMART;
                 break;
             }
+            case "guided": {
+                Config.ss = SearchStrategy.GUIDED;
+                break;
+            }
+            case "mutation": {
+                Config.ss = SearchStrategy.MUTATION;
+                break;
+            }
             default:
                 throw new RuntimeException("Unrecognized search strategy: "
                         + value + "!");
@@ -96,10 +194,34 @@ public class Cli {
             Driver.rand = new Rand(seed);
             break;
         }
+        case "keyedRand": {
+            Config.keyedRand = value.isEmpty() || Boolean.parseBoolean(value);
+            break;
+        }
+        case "randKeysFile": {
+            Config.randKeysFile = value;
+            break;
+        }
+        case "firstOutput": {
+            Config.firstOutput = Integer.parseInt(value);
+            break;
+        }
+        case "firstTrial": {
+            Config.firstTrial = Integer.parseInt(value);
+            break;
+        }
         case "isExhaustive": {
             Config.isExhaustive = value.isEmpty() || Boolean.parseBoolean(value);
             break;
         }
+        case "sysBegin": {
+            Config.sysBegin = new BigInteger(value);
+            break;
+        }
+        case "sysEnd": {
+            Config.sysEnd = new BigInteger(value);
+            break;
+        }
         case "nOutputs": {
             Config.nOutputs = Integer.parseInt(value);
             break;
@@ -108,6 +230,14 @@ public class Cli {
             Config.nInvocations = Integer.parseInt(value);
             break;
         }
+        case "maxArrLen": {
+            Config.maxArrLen = Integer.parseInt(value);
+            break;
+        }
+        case "maxArrLitLen": {
+            Config.maxArrLitLen = Integer.parseInt(value);
+            break;
+        }
         case "ints": {
             Config.ints = new LinkedList<>();
             for (String s : readArgAsArray(value, "+")) {
@@ -173,6 +303,14 @@ public class Cli {
             Config.optSolverAid = Boolean.parseBoolean(value);
             break;
         }
+        case "optSkipVarSaving": {
+            Config.optSkipVarSaving = Boolean.parseBoolean(value);
+            break;
+        }
+        case "optSpliceOutput": {
+            Config.optSpliceOutput = Boolean.parseBoolean(value);
+            break;
+        }
         case "debug": {
             if (value.isEmpty() || Boolean.parseBoolean(value)) {
                 Log.setLevel("debug");
@@ -207,6 +345,38 @@ public class Cli {
             Config.disableOutput = value.isEmpty() || Boolean.parseBoolean(value);
             break;
         }
+        case "outputFormat": {
+            switch (value) {
+            case "dir": {
+                Config.outputFormat = OutputFormat.DIR;
+                break;
+            }
+            case "pack": {
+                Config.outputFormat = OutputFormat.PACK;
+                break;
+            }
+            default:
+                throw new RuntimeException("Unrecognized output format: "
+                        + value + "!");
+            }
+            break;
+        }
+        case "packFile": {
+            Config.packFile = value;
+            break;
+        }
+        case "asyncOutput": {
+            Config.asyncOutput = value.isEmpty() || Boolean.parseBoolean(value);
+            break;
+        }
+        case "saveClassFiles": {
+            Config.saveClassFiles = value.isEmpty() || Boolean.parseBoolean(value);
+            break;
+        }
+        case "writeFiles": {
+            Config.writeFiles = value.isEmpty() || Boolean.parseBoolean(value);
+            break;
+        }
         case "saveHoleValues": {
             Config.saveHoleValues = value.isEmpty() || Boolean.parseBoolean(value);
             break;
@@ -227,6 +397,100 @@ public class Cli {
             Config.staticGen = value.isEmpty() || Boolean.parseBoolean(value);
             break;
         }
+        case "guidedTimeout": {
+            Config.guidedTimeout = Integer.parseInt(value);
+            break;
+        }
+        case "guidedJvmArgs": {
+            Config.guidedJvmArgs = new LinkedList<>();
+            for (String s : readArgAsArray(value, "+")) {
+                Config.guidedJvmArgs.add(s);
+            }
+            break;
+        }
+        case "swarm": {
+            Config.swarm = value.isEmpty() || Boolean.parseBoolean(value);
+            break;
+        }
+        case "uniformAlt": {
+            Config.uniformAlt = value.isEmpty() || Boolean.parseBoolean(value);
+            break;
+        }
+        case "maxLitSizeBits": {
+            Config.maxLitSizeBits = Integer.parseInt(value);
+            break;
+        }
+        case "staticGenThreads": {
+            Config.staticGenThreads = Integer.parseInt(value);
+            break;
+        }
+        case "pipeline": {
+            Config.pipeline = value.isEmpty() || Boolean.parseBoolean(value);
+            break;
+        }
+        case "fanOut": {
+            Config.fanOut = Integer.parseInt(value);
+            break;
+        }
+        case "fanOutTimeout": {
+            Config.fanOutTimeout = Integer.parseInt(value);
+            break;
+        }
+        case "avoidExceptions": {
+            Config.avoidExceptions = value.isEmpty() || Boolean.parseBoolean(value);
+            break;
+        }
+        case "weights": {
+            Config.weights = new HashMap<>();
+            for (String s : readArgAsArray(value, "+")) {
+                int i = s.lastIndexOf(':');
+                if (i <= 0) {
+                    throw new RuntimeException("Weight must be <name>:<weight>, but got " + s + "!");
+                }
+                double w = Double.parseDouble(s.substring(i + 1));
+                if (!(w >= 0) || Double.isInfinite(w)) {
+                    throw new RuntimeException("Weight must be non-negative, but got " + s + "!");
+                }
+                Config.weights.put(s.substring(0, i), w);
+            }
+            break;
+        }
+        case "saveRecords": {
+            Config.saveRecords = value.isEmpty() || Boolean.parseBoolean(value);
+            break;
+        }
+        case "recordsFile": {
+            Config.recordsFile = value;
+            break;
+        }
+        case "regenerate": {
+            Config.regenerate = value;
+            break;
+        }
+        case "regenerateOutput": {
+            Config.regenerateOutput = Integer.parseInt(value);
+            break;
+        }
+        case "corpus": {
+            Config.corpusFile = value;
+            break;
+        }
+        case "saveChoices": {
+            Config.saveChoices = value.isEmpty() || Boolean.parseBoolean(value);
+            break;
+        }
+        case "choicesFile": {
+            Config.choicesFile = value;
+            break;
+        }
+        case "dryRun": {
+            Config.dryRun = value.isEmpty() || Boolean.parseBoolean(value);
+            break;
+        }
+        case "progressInterval": {
+            Config.progressInterval = Integer.parseInt(value);
+            break;
+        }
         case "trackHoles": {
             Config.trackHoles = value.isEmpty() || Boolean.parseBoolean(value);
             break;
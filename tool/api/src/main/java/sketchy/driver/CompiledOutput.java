@@ -0,0 +1,18 @@
+package sketchy.driver;
+
+import sketchy.compiler.ClassBytes;
+
+/**
+ * A program compile-checked off the main thread, with its classes
+ * from the check, or null if it is not compiled.
+ */
+class CompiledOutput {
+
+    final String code;
+    final ClassBytes classBytes;
+
+    CompiledOutput(String code, ClassBytes classBytes) {
+        this.code = code;
+        this.classBytes = classBytes;
+    }
+}
@@ -0,0 +1,182 @@
+package sketchy.driver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves generation requests in one long-running JVM, so the JDK
+ * compiler and Z3 are loaded and warmed up only once, instead of
+ * starting a JVM per template.
+ * <p>
+ * Usage: {@code Daemon [--daemonThreads=N]}. Requests are read from
+ * the standard input, one per line:
+ * <pre>
+ * &lt;id&gt; &lt;template path&gt; [--seeds=FROM..TO] [options of Driver...]
+ * </pre>
+ * where the id is any word that tags the responses, and a seed range
+ * runs {@link Driver} once per seed. A line {@code QUIT}, or the end
+ * of the input, stops the daemon after the requests in progress.
+ * Responses are written to the standard output, one per line:
+ * <ul>
+ *   <li>{@code SEED <id> <seed>} before the programs of a seed;</li>
+ *   <li>{@code PROGRAM <id> <class name> <n>} followed by the n
+ *   bytes of the program in UTF-8;</li>
+ *   <li>{@code DONE <id> <number of programs> <millis>};</li>
+ *   <li>{@code ERROR <id> <message>}.</li>
+ * </ul>
+ * Responses of different requests may interleave when they run on
+ * more than one thread. Anything else we print goes to the standard
+ * error. Nothing is written to the disk unless {@code --outputDir} is
+ * given, where the files go under a directory per seed if there is a
+ * seed range.
+ * <p>
+ * Every request runs in its own class loader, see
+ * {@link TemplateRunner}, so our classes and JavaParser are loaded
+ * again for every request.
+ */
+public class Daemon {
+
+    private final PrintStream out;
+    private int nThreads = 1;
+
+    private Daemon(PrintStream out) {
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Keep the standard output for responses only
+        Daemon daemon = new Daemon(System.out);
+        System.setOut(System.err);
+        daemon.parseArgs(args);
+        daemon.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--daemonThreads=")) {
+                nThreads = Integer.parseInt(arg.substring("--daemonThreads=".length()));
+            } else {
+                throw new RuntimeException("Unknown option " + arg + "!");
+            }
+        }
+        if (nThreads < 1) {
+            throw new RuntimeException("daemonThreads must be positive!");
+        }
+    }
+
+    private void serve(BufferedReader in) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.equals("QUIT")) {
+                    break;
+                }
+                List<String> words = Arrays.asList(line.split("\\s+"));
+                executor.submit(() -> handle(words));
+            }
+        } finally {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            out.flush();
+        }
+    }
+
+    private void handle(List<String> words) {
+        String id = words.get(0);
+        long start = System.currentTimeMillis();
+        try {
+            if (words.size() < 2) {
+                throw new RuntimeException("Template path is required!");
+            }
+            Path srcPath = Paths.get(words.get(1)).toAbsolutePath().normalize();
+            long fromSeed = 0;
+            long toSeed = -1;
+            String outputDir = null;
+            List<String> args = new ArrayList<>();
+            for (String arg : words.subList(2, words.size())) {
+                if (arg.startsWith("--seeds=")) {
+                    String[] range = arg.substring("--seeds=".length()).split("\\.\\.");
+                    if (range.length != 2) {
+                        throw new RuntimeException("Expect --seeds=FROM..TO but encountered " + arg + "!");
+                    }
+                    fromSeed = Long.parseLong(range[0]);
+                    toSeed = Long.parseLong(range[1]);
+                } else if (arg.startsWith("--outputDir=")) {
+                    outputDir = arg.substring("--outputDir=".length());
+                } else if (arg.startsWith("--clzName=") || arg.startsWith("--srcPath=")) {
+                    throw new RuntimeException("clzName and srcPath are given by the template path!");
+                } else {
+                    args.add(arg);
+                }
+            }
+            String clzName = TemplateRunner.getClassName(srcPath);
+            int[] nPrograms = {0};
+            boolean hasSeeds = toSeed >= fromSeed;
+            for (long seed = fromSeed; seed <= toSeed || !hasSeeds; seed++) {
+                List<String> driverArgs = new ArrayList<>();
+                driverArgs.add("--clzName=" + clzName);
+                driverArgs.add("--srcPath=" + srcPath);
+                if (hasSeeds) {
+                    respond("SEED " + id + " " + seed, null);
+                    driverArgs.add("--seed=" + seed);
+                }
+                if (outputDir == null) {
+                    driverArgs.add("--writeFiles=false");
+                } else {
+                    driverArgs.add("--outputDir=" + (hasSeeds ? Paths.get(outputDir, String.valueOf(seed)) : outputDir));
+                }
+                driverArgs.addAll(args);
+                TemplateRunner.run(srcPath, clzName, driverArgs, program -> {
+                    respond("PROGRAM " + id + " " + program.className + " ",
+                            program.code.getBytes(StandardCharsets.UTF_8));
+                    synchronized (nPrograms) {
+                        nPrograms[0] += 1;
+                    }
+                });
+                if (!hasSeeds) {
+                    break;
+                }
+            }
+            respond("DONE " + id + " " + nPrograms[0] + " " + (System.currentTimeMillis() - start), null);
+        } catch (Throwable t) {
+            t.printStackTrace();
+            respond("ERROR " + id + " " + String.valueOf(t).replace('\n', ' '), null);
+        }
+    }
+
+    /**
+     * Writes a response line, which ends with the number of bytes of
+     * the given body followed by the body if there is one.
+     */
+    private void respond(String line, byte[] body) {
+        synchronized (out) {
+            if (body == null) {
+                out.print(line + "\n");
+            } else {
+                out.print(line + body.length + "\n");
+                out.write(body, 0, body.length);
+            }
+            out.flush();
+        }
+    }
+}
@@ -8,27 +8,41 @@ import sketchy.annotation.Entry;
 import sketchy.ast.Node;
 import sketchy.bytecode.StaticFieldAnalyzer;
 import sketchy.bytecode.VariableAnalyzer;
+import sketchy.compiler.ClassBytes;
 import sketchy.compiler.CompilationException;
 import sketchy.compiler.InMemoryCompiler;
 import sketchy.data.Data;
+import sketchy.data.ProgramRecords;
+import sketchy.guided.Corpus;
+import sketchy.guided.Guidance;
+import sketchy.guided.JitRunner;
+import sketchy.guided.Mutator;
 import sketchy.log.Log;
+import sketchy.output.AsyncSink;
+import sketchy.output.DirSink;
+import sketchy.output.OutputFormat;
+import sketchy.output.OutputSink;
+import sketchy.output.PackSink;
 import sketchy.transformer.HoleExtractor;
 import sketchy.transformer.HoleIdAssigner;
 import sketchy.transformer.OnDemandTransformer;
 import sketchy.transformer.OutputTransformer;
-import sketchy.util.IOUtil;
+import sketchy.util.KeyedRand;
 import sketchy.util.Rand;
 import sketchy.util.TypeUtil;
 import sketchy.util.UniqueList;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.Consumer;
 
 /**
  * Entry class.
@@ -47,6 +61,24 @@ public class Driver {
      */
     public static boolean isDriven = false;
 
+    /**
+     * Compiles programs for {@link Config#saveClassFiles} that are not
+     * compiled as output.
+     */
+    private static InMemoryCompiler classFileCompiler;
+
+    /**
+     * Where we write programs and other files, or null if
+     * {@link Config#writeFiles} is off.
+     */
+    static OutputSink sink;
+
+    /**
+     * Receives every output program if set, e.g., by {@link Daemon}
+     * to stream programs back.
+     */
+    public static Consumer<Program> outputListener;
+
     /**
      * In-memory compiler we use to compile and load sketches.
      */
@@ -61,6 +93,8 @@ public class Driver {
     private static OutputTransformer outputTransformer;
     private static OnDemandTransformer onDemandTransformer;
     private static ClassLoader initialClassLoader;
+    private static ProgramRecords.Writer records;
+    private static OutputPipeline pipeline; // only when Config.pipeline is on
     private static String[] argumentMethodNames;
     private static WrappedChecksum checksum; // for testing, only used when Config.mimicExecution is on
 
@@ -102,9 +136,17 @@ public class Driver {
      * Main method.
      */
     public static void main(String[] args) {
-        init(args);
-        drive();
-        terminate();
+        try {
+            init(args);
+            drive();
+            terminate();
+        } finally {
+            FanOut.close();
+            if (sink != null) {
+                sink.close();
+                sink = null;
+            }
+        }
     }
 
     /**
@@ -118,6 +160,9 @@ public class Driver {
         if (Config.countInvalidArrIdxException) {
             outputInvalidArrIdxExceptionFile();
         }
+        if (records != null) {
+            records.close();
+        }
     }
 
     /**
@@ -126,6 +171,9 @@ public class Driver {
     private static void init(String[] args) {
         Cli.parseArgs(args);
         isDriven = true;
+        if (Config.writeFiles) {
+            sink = newSink();
+        }
         sketchClzSimpleName = TypeUtil.getSimpleName(Config.sketchClzFullName);
 
         // TODO: Check @Entry and @Argument are used correctly in the
@@ -172,9 +220,38 @@ public class Driver {
         if (Config.saveHoleValues) {
             outputHoleValuesFileHeader();
         }
+        if (Config.saveChoices) {
+            sink.write(Config.choicesFile, Corpus.HEADER);
+        }
+        if (Config.saveRecords) {
+            records = new ProgramRecords.Writer(
+                    Paths.get(Config.outputDir, Config.recordsFile),
+                    ProgramRecords.hashTemplate(Config.sketchSrc));
+        }
+        if (Config.keyedRand) {
+            rand = new KeyedRand(Config.seed);
+            Data.outputCount = Config.firstOutput - 1;
+            Data.repeatedTrials = Config.firstTrial;
+            sink.write(Config.randKeysFile, "program,output,trial\n");
+        }
+    }
+
+    private static OutputSink newSink() {
+        OutputSink sink = Config.outputFormat == OutputFormat.PACK
+                ? new PackSink(Paths.get(Config.outputDir, Config.packFile))
+                : new DirSink(Paths.get(Config.outputDir));
+        return Config.asyncOutput ? new AsyncSink(sink) : sink;
     }
 
     private static void drive() {
+        if (Config.regenerate != null) {
+            regenerate();
+            return;
+        }
+        if (Config.dryRun) {
+            estimateSearchSpace();
+            return;
+        }
         if (Data.thisSketchHasHole()) {
             // Normal generation from a sketch with hole(s)
             if (Config.staticGen) {
@@ -188,21 +265,102 @@ public class Driver {
         }
     }
 
+    /**
+     * Output the programs in the records of {@link Config#regenerate}
+     * without running the sketch.
+     */
+    private static void regenerate() {
+        try (ProgramRecords.Reader reader = new ProgramRecords.Reader(Paths.get(Config.regenerate))) {
+            if (reader.getTemplateHash() != ProgramRecords.hashTemplate(Config.sketchSrc)) {
+                throw new RuntimeException("Records are not of this template: " + Config.regenerate + "!");
+            }
+            ProgramRecords.Record record;
+            while ((record = reader.next()) != null) {
+                if (Config.regenerateOutput > 0 && record.output != Config.regenerateOutput) {
+                    continue;
+                }
+                String outputClzName = getOutputClzName(record.output);
+                String code = outputTransformer.setFilledHoles(record.filledHoles)
+                        .setOutClzName(outputClzName)
+                        .transformAndGetSrcCode();
+                outputJavaFile(outputClzName, code, record.filledHoles, null, Data.outputCount);
+            }
+        }
+    }
+
+    /**
+     * Save the record of an output program if
+     * {@link Config#saveRecords}.
+     */
+    static void saveRecord(int outputIdx, Map<Integer, String> filledHoles) {
+        if (records != null) {
+            records.write(outputIdx, filledHoles);
+        }
+    }
+
+    /**
+     * Print the size of the systematic search space without
+     * generating any program.
+     */
+    private static void estimateSearchSpace() {
+        // ASTs differ by search strategy, e.g., intVal() has no
+        // systematic choices in random style.
+        Config.ss = SearchStrategy.SYSTEMATIC;
+        staticLoadSketch();
+        createASTOfHoleExps();
+        System.out.print(SpaceEstimator.report());
+    }
+
     private static void staticGenFromSketch() {
         staticLoadSketch();
         createASTOfHoleExps();
+        if (Config.staticGenThreads > 1) {
+            parallelStaticGenFromSketch();
+            return;
+        }
         do {
-            Data.runCount += 1;
-            Data.resetStrCache();
-            // For each exp node just invoke staticEval
-            for (Map.Entry<Integer, Node<?>> e : Data.getASTCache().entrySet()) {
-                int holeId = e.getKey();
-                Node<?> exp = e.getValue();
-                exp.staticEval(holeId);
-            }
+            staticGenStep();
         } while (!staticGenTearDown());
     }
 
+    /**
+     * Static generation where programs are transformed and
+     * compile-checked in parallel. See {@link StaticGenPool}.
+     */
+    private static void parallelStaticGenFromSketch() {
+        StaticGenPool pool = new StaticGenPool(outputTransformer, Config.staticGenThreads);
+        try {
+            while (!pool.isDone()) {
+                staticGenStep();
+                if (!Data.saveToPastStrCache()) {
+                    // Repeat skipping this output
+                    Data.repeatedTrials += 1;
+                    continue;
+                }
+                pool.submit(Data.getStrCache());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void staticGenStep() {
+        if (Config.progressInterval > 0) {
+            Progress.tick();
+        }
+        Data.runCount += 1;
+        Data.resetStrCache();
+        if (Config.swarm) {
+            Swarm.reset();
+        }
+        // For each exp node just invoke staticEval
+        for (Map.Entry<Integer, Node<?>> e : Data.getASTCache().entrySet()) {
+            int holeId = e.getKey();
+            Node<?> exp = e.getValue();
+            exp.staticEval(holeId);
+        }
+    }
+
     /**
      * Get choices for every hole, which is mainly analyzing which
      * variables are available at every hole.
@@ -293,6 +451,9 @@ public class Driver {
     }
 
     private static void genFromSketch() {
+        if (Config.pipeline) {
+            pipeline = new OutputPipeline(outputTransformer);
+        }
         try {
             loadSketch();
             do {
@@ -305,6 +466,16 @@ public class Driver {
                 | NoSuchFieldException
                 | NoSuchMethodException e) {
             throw new RuntimeException(e);
+        } finally {
+            if (pipeline != null) {
+                // Output the runs before a failing one, as we would
+                // without the pipeline
+                try {
+                    pipeline.flush();
+                } finally {
+                    pipeline.shutdown();
+                }
+            }
         }
     }
 
@@ -490,11 +661,18 @@ public class Driver {
     private static void setUp()
             throws IllegalAccessException, ClassNotFoundException,
             NoSuchFieldException {
+        if (Config.progressInterval > 0) {
+            Progress.tick();
+        }
         Data.runCount += 1;
         Data.resetStrCache();
         Data.holeVector = new UniqueList<>();
         Data.resetNeverReachableHoles();
 
+        if (Data.runCount == 2 && Config.optSkipVarSaving) {
+            skipVarSavingOfHolesWithoutVars();
+        }
+
         // reload the original class
         reloadSketch(initialClassLoader);
         recoverInitialStatus();
@@ -510,10 +688,46 @@ public class Driver {
         // reset flags.
         hasCompilingIssueInHotFilling = false;
 
+        if (Config.ss == SearchStrategy.GUIDED) {
+            Guidance.startRun();
+        } else if (Config.ss == SearchStrategy.MUTATION) {
+            Mutator.startRun();
+        }
+        if (Config.swarm) {
+            Swarm.reset();
+        }
+
         // reset profiling counters
         resetRuntimeStatsCounters();
     }
 
+    /**
+     * Recompile the sketch without saving values of variables around
+     * the holes that never read or write variables, which we know
+     * once their ASTs are created in the first run. Later recompiling
+     * in hot filling also skips them.
+     */
+    private static void skipVarSavingOfHolesWithoutVars() {
+        boolean found = false;
+        for (Map.Entry<Integer, Node<?>> e : Data.getASTCache().entrySet()) {
+            if (!e.getValue().usesVars()) {
+                Data.addToHolesWithoutVars(e.getKey());
+                found = true;
+            }
+        }
+        if (!found) {
+            return;
+        }
+        compiler.resetTransformedBytes();
+        try {
+            initialClassLoader = compiler.compileAndGetLoader(
+                    Config.sketchClzFullName,
+                    outputTransformer.getOrigCu().toString());
+        } catch (CompilationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private static void transformSketchAndCompileInMemory(Map<String, Object> fieldValues)
             throws NoSuchFieldException, IllegalAccessException,
             ClassNotFoundException, CompilationException {
@@ -603,6 +817,9 @@ public class Driver {
         // If no hole is exercised, then we can stop because we will
         // be not able to generate any program.
         if (Data.isNoHoleFilled()) {
+            if (pipeline != null) {
+                pipeline.flush();
+            }
             outputWhenNoHoleExercised();
             return true;
         }
@@ -615,7 +832,13 @@ public class Driver {
         if (Config.ss != SearchStrategy.SYSTEMATIC
                 && !Data.saveToPastStrCache()) {
             // Repeat, skip this output
-            Data.repeatedTrials += 1;
+            return skipOutput();
+        } else if (Config.ss == SearchStrategy.SYSTEMATIC
+                && Data.runCount == 1 && Config.sysBegin.signum() > 0) {
+            // The first run only tells us the holes and their choices,
+            // from which we jump to the beginning of the given range
+            // without outputting this program.
+            Data.seekHoles(Config.sysBegin);
             return Data.isDone();
         } else if (Config.ss == SearchStrategy.SYSTEMATIC) {
             // Analyze holeVector to figure out which holes should
@@ -626,8 +849,13 @@ public class Driver {
         // If we already know something is not compilable from
         // previous execution, skip this output
         if (hasCompilingIssueInHotFilling) {
-            Data.repeatedTrials += 1;
-            return Data.isDone();
+            return skipOutput();
+        }
+
+        if (pipeline != null) {
+            pipeline.submit(Data.getStrCache(),
+                    Config.saveChoices ? Data.getChoicesOfFilledHoles() : null);
+            return pipeline.isDone();
         }
 
         // transform sketchy apis and output the generated program
@@ -640,9 +868,46 @@ public class Driver {
             Data.repeatedTrials += 1;
             return Data.isDone();
         }
+        if (Config.fanOut > 1) {
+            fanOut();
+        }
+        return Data.isDone();
+    }
+
+    /**
+     * Count this run as a repeated trial without output.
+     */
+    private static boolean skipOutput() {
+        if (pipeline != null) {
+            pipeline.skip();
+            return pipeline.isDone();
+        }
+        Data.repeatedTrials += 1;
         return Data.isDone();
     }
 
+    /**
+     * Output more programs from the current run without running the
+     * sketch again, see {@link FanOut}.
+     */
+    private static void fanOut() {
+        List<Integer> holes = FanOut.getResamplableHoles();
+        if (holes.isEmpty()) {
+            return;
+        }
+        for (int i = 1; i < Config.fanOut && !Data.isDone(); i++) {
+            FanOut.resample(holes);
+            if (!Data.saveToPastStrCache()) {
+                continue;
+            }
+            try {
+                transformAndOutput(true, true);
+            } catch (CompilationException e) {
+                // skip this output
+            }
+        }
+    }
+
     private static void collectRuntimeStats() {
         if (Config.saveHoleValues) {
             // write hole values saved to file
@@ -685,9 +950,9 @@ public class Driver {
     }
 
     private static void transformAndOutput() throws CompilationException {
-        transformAndOutput(true);
+        transformAndOutput(true, false);
     }
-    private static void transformAndOutput(boolean canOutput)
+    private static void transformAndOutput(boolean canOutput, boolean isFanOut)
             throws CompilationException {
         int outputIdx = Data.outputCount + 1;
         String outputClzName = getOutputClzName(outputIdx);
@@ -703,18 +968,48 @@ public class Driver {
         }
 
         // Check if the generated program is compilable
+        ClassBytes classBytes = null;
         if (!Config.allowNonCompilableOutput) {
             // throw a CompilerException if the generated program cannot compile
-            compiler.compile(outputClzName, code);
+            classBytes = compiler.compile(outputClzName, code);
+        }
+
+        // A program of fan-out is not run by the driver, so run it
+        // here before output
+        if (isFanOut) {
+            if (classBytes == null) {
+                classBytes = compiler.compile(outputClzName, code);
+            }
+            if (!FanOut.check(outputClzName, classBytes)) {
+                return;
+            }
         }
 
         // Output only if the generated program is able to compile
         if (Config.mimicExecution) {
             // print out checksum value
-            IOUtil.writeToFile(Config.outputDir, outputClzName + "_output.txt", checksum.getValue() + "\n");
-            outputJavaFile(outputClzName, code);
+            sink.write(outputClzName + "_output.txt", checksum.getValue() + "\n");
+            outputJavaFile(outputClzName, code, Data.getStrCache(), classBytes, Data.outputCount);
         } else if (canOutput) {
-            outputJavaFile(outputClzName, code);outputJavaFile(outputClzName, code);
+            outputJavaFile(outputClzName, code, Data.getStrCache(), classBytes, Data.outputCount);
+        }
+
+        if (Config.saveChoices && canOutput) {
+            sink.append(Config.choicesFile,
+                    Corpus.toLine(outputClzName, Data.getChoicesOfFilledHoles()));
+        }
+        if (canOutput) {
+            saveRecord(outputIdx, Data.getStrCache());
+        }
+        if (Config.keyedRand && canOutput) {
+            sink.append(Config.randKeysFile,
+                    outputClzName + "," + outputIdx + "," + Data.repeatedTrials + "\n");
+        }
+
+        // Learn from the JIT compilers what the program triggers
+        if (Config.ss == SearchStrategy.GUIDED && canOutput) {
+            int nNew = Guidance.feedback(JitRunner.run(compiler.getClassBytes(), outputClzName));
+            Log.info(outputClzName + ": " + nNew + " new JIT feature(s)");
         }
 
         Data.outputCount = outputIdx;
@@ -801,7 +1096,7 @@ public class Driver {
         return args;
     }
 
-    private static String getOutputClzName(int idx) {
+    static String getOutputClzName(int idx) {
         return sketchClzSimpleName + Config.outputClzNamePostfix + idx;
     }
 
@@ -829,31 +1124,79 @@ public class Driver {
         }
         out.append("\n");
 
-        IOUtil.writeToFile(Config.outputDir, Config.profilingFile, out.toString());
+        sink.write(Config.profilingFile, out.toString());
     }
 
-    private static void outputJavaFile(
+    static void outputJavaFile(
             String outputClzName, String code) {
+        outputJavaFile(outputClzName, code, Collections.emptyMap(), null, Data.outputCount);
+    }
+
+    /**
+     * Output a program with the filled holes it comes from, and its
+     * classes if they are compiled, or null, where the output count is
+     * the number of programs output before, which we record instead
+     * with outputs disabled.
+     */
+    static void outputJavaFile(String outputClzName, String code,
+            Map<Integer, String> filledHoles, ClassBytes classBytes, int outputCount) {
+        if (outputListener != null) {
+            outputListener.accept(new Program(outputClzName, code, new HashMap<>(filledHoles),
+                    classBytes == null ? null : new HashMap<>(classBytes.getBytesByClass())));
+        }
+        if (!Config.writeFiles) {
+            return;
+        }
         if (Config.disableOutput) {
             // With outputs disabled, we need to at least print out how
             // many programs we tried.
-            IOUtil.writeToFile(Config.outputDir, "output.txt", "outputCount: " + Data.outputCount);
+            sink.write("output.txt", "outputCount: " + outputCount);
         } else {
-            IOUtil.writeToFile(Config.outputDir, outputClzName + ".java", code);
+            sink.write(outputClzName + ".java", code);
+            if (Config.saveClassFiles) {
+                writeClassFiles(outputClzName, code, classBytes);
+            }
+        }
+    }
+
+    /**
+     * Write the class files of a program, which is compiled here if
+     * it is not compiled yet, e.g., after renaming.
+     */
+    private static void writeClassFiles(String outputClzName, String code, ClassBytes classBytes) {
+        if (classBytes == null) {
+            try {
+                classBytes = compileForClassFiles(outputClzName, code);
+            } catch (CompilationException e) {
+                // Only with allowNonCompilableOutput
+                return;
+            }
+        }
+        for (Map.Entry<String, byte[]> e : classBytes.entrySet()) {
+            sink.write(e.getKey().replace('.', '/') + ".class", e.getValue());
+        }
+    }
+
+    /**
+     * Compile a program for its class files with a compiler of its
+     * own, as programs can be output off the main thread.
+     */
+    private static synchronized ClassBytes compileForClassFiles(String outputClzName, String code)
+            throws CompilationException {
+        if (classFileCompiler == null) {
+            classFileCompiler = new InMemoryCompiler();
         }
+        return classFileCompiler.compile(outputClzName, code);
     }
 
     private static void outputHoleValuesFileHeader() {
-        IOUtil.writeToFile(Config.outputDir,
-                Config.holeValuesFile,
+        sink.write(Config.holeValuesFile,
                 "class,holeId,expression,sum,values\n");
     }
 
     private static void appendHoleValuesFile() {
-        IOUtil.writeToFile(Config.outputDir,
-                Config.holeValuesFile,
-                condValsToString(getOutputClzName(Data.outputCount)),
-                true);
+        sink.append(Config.holeValuesFile,
+                condValsToString(getOutputClzName(Data.outputCount)));
     }
 
     private static String condValsToString(String clzName) {
@@ -904,8 +1247,7 @@ public class Driver {
         StringBuilder sb = new StringBuilder();
         sb.append("invalidArrayIndexException\n")
                 .append(numInvalidArrIdxException).append("\n");
-        IOUtil.writeToFile(Config.outputDir,
-                Config.invalidArrIdxExceptionFile,
+        sink.write(Config.invalidArrIdxExceptionFile,
                 sb.toString());
     }
 }
@@ -0,0 +1,227 @@
+package sketchy.driver;
+
+import sketchy.Config;
+import sketchy.ast.Node;
+import sketchy.ast.exp.AssignExp;
+import sketchy.ast.exp.Exp;
+import sketchy.ast.exp.PreIncExp;
+import sketchy.ast.exp.RefArrAccessExp;
+import sketchy.ast.visitor.Visitor;
+import sketchy.compiler.ClassBytes;
+import sketchy.data.Data;
+import sketchy.log.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Fan-out of programs from one run in random style. After the
+ * program of a run is output, further programs re-sample the holes
+ * whose choices do not change how the run goes and keep the rest, so
+ * the sketch is not run again for them.
+ * <p>
+ * Such holes are expressions that are not conditions and, with their
+ * current choices, neither change variables nor access arrays, whose
+ * valid indices are only known at runtime. Their values may still
+ * flow into conditions that are not holes, loop bounds, array sizes
+ * or divisors, so we run every program before it is output, in a
+ * child JVM of {@link FanOutChecker} that lives as long as the
+ * generation, and drop it if it reaches a hole the run did not fill
+ * or is not done in {@link Config#fanOutTimeout} seconds, in which
+ * case the child JVM is killed and another one started. Exceptions
+ * it throws are caught by its main0, as they are for the program of
+ * the run.
+ */
+class FanOut {
+
+    private static Process checker;
+    private static BufferedReader checkerOut;
+    private static Writer checkerIn;
+    private static Path classDir;
+
+    /**
+     * Returns true if the compiled program runs its main0 in time
+     * without reaching a hole the run did not fill.
+     */
+    static boolean check(String clzName, ClassBytes classBytes) {
+        Path dir = null;
+        try {
+            if (classDir == null) {
+                classDir = Files.createTempDirectory("sketchy-fan-out");
+            }
+            dir = classDir.resolve(clzName);
+            String mainClz = null;
+            for (Map.Entry<String, byte[]> e : classBytes.getBytesByClass().entrySet()) {
+                String className = e.getKey();
+                Path file = dir.resolve(className.replace('.', File.separatorChar) + ".class");
+                Files.createDirectories(file.getParent());
+                Files.write(file, e.getValue());
+                if (className.equals(clzName) || className.endsWith("." + clzName)) {
+                    mainClz = className;
+                }
+            }
+            if (mainClz == null) {
+                throw new RuntimeException("No class " + clzName + " to run!");
+            }
+            String result = runInChecker(mainClz + " " + dir);
+            if (!FanOutChecker.OK.equals(result)) {
+                Log.info(clzName + " is dropped: " + result);
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (dir != null) {
+                deleteDir(dir);
+            }
+        }
+    }
+
+    /**
+     * Sends the request to the child JVM, started if there is none,
+     * and returns its response, or null if it dies.
+     */
+    private static String runInChecker(String request) throws IOException {
+        if (checker == null) {
+            List<String> cmd = new LinkedList<>();
+            cmd.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            cmd.add("-cp");
+            cmd.add(System.getProperty("java.class.path"));
+            cmd.add(FanOutChecker.class.getName());
+            cmd.add(String.valueOf(Config.fanOutTimeout));
+            checker = new ProcessBuilder(cmd)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            checkerOut = new BufferedReader(new InputStreamReader(
+                    checker.getInputStream(), StandardCharsets.UTF_8));
+            checkerIn = new OutputStreamWriter(checker.getOutputStream(), StandardCharsets.UTF_8);
+        }
+        String result = null;
+        try {
+            checkerIn.write(request + "\n");
+            checkerIn.flush();
+            result = checkerOut.readLine();
+        } catch (IOException e) {
+            // The child JVM is gone
+        }
+        if (result == null || result.equals(FanOutChecker.TIMEOUT)) {
+            stopChecker();
+        }
+        return result;
+    }
+
+    /**
+     * Stops the child JVM, if any, and deletes what we wrote for it.
+     */
+    static void close() {
+        stopChecker();
+        if (classDir != null) {
+            deleteDir(classDir);
+            classDir = null;
+        }
+    }
+
+    private static void stopChecker() {
+        if (checker == null) {
+            return;
+        }
+        checker.destroyForcibly();
+        try {
+            checker.waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            checker = null;
+            checkerOut = null;
+            checkerIn = null;
+        }
+    }
+
+    private static void deleteDir(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the holes filled in the current run that can be
+     * re-sampled.
+     */
+    static List<Integer> getResamplableHoles() {
+        List<Integer> holes = new ArrayList<>();
+        for (int holeId : Data.getFilledHoles()) {
+            Node<?> ast = Data.getASTOfHole(holeId);
+            if (ast instanceof Exp
+                    && !Data.isTheHoleACondition(holeId)
+                    && isPure(ast)) {
+                holes.add(holeId);
+            }
+        }
+        return holes;
+    }
+
+    /**
+     * Re-samples the given holes for the next program, where a hole
+     * whose new choice is not pure keeps its choice in the run.
+     */
+    static void resample(List<Integer> holes) {
+        Data.copyStrCache();
+        for (int holeId : holes) {
+            Node<?> ast = Data.getASTOfHole(holeId);
+            String prev = Data.getJavaStrOfHole(holeId);
+            ast.resample();
+            if (!isPure(ast)) {
+                Data.saveToStrCache(holeId, prev);
+            }
+        }
+    }
+
+    private static boolean isPure(Node<?> ast) {
+        PurityChecker checker = new PurityChecker();
+        ast.accept(checker);
+        return checker.isPure;
+    }
+
+    private static class PurityChecker extends Visitor {
+
+        private boolean isPure = true;
+
+        @Override
+        public <N extends Number> boolean visit(PreIncExp<N> node) {
+            isPure = false;
+            return false;
+        }
+
+        @Override
+        public <T> boolean visit(AssignExp<T> node) {
+            isPure = false;
+            return false;
+        }
+
+        @Override
+        public boolean visit(RefArrAccessExp<?, ?> node) {
+            isPure = false;
+            return false;
+        }
+    }
+}
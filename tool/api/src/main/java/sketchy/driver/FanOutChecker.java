@@ -0,0 +1,83 @@
+package sketchy.driver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+/**
+ * Runs programs of fan-out for {@link FanOut} in a JVM of its own, so
+ * that a program that is not done in time can be stopped with the
+ * JVM.
+ * <p>
+ * Usage: {@code FanOutChecker <timeout seconds>}. Requests are read
+ * from the standard input, one per line:
+ * <pre>
+ * &lt;class name&gt; &lt;class directory&gt;
+ * </pre>
+ * for each of which we run main0 of the class, loaded from the
+ * directory by a new class loader, and print {@code OK} if it
+ * returns or {@code FAIL} if it throws, e.g., when it reaches a hole
+ * the run did not fill, as holes throw out of the driver. A program
+ * that is not done in time cannot be stopped, so we print
+ * {@code TIMEOUT} and exit. The end of the input stops us.
+ */
+public class FanOutChecker {
+
+    static final String OK = "OK";
+    static final String FAIL = "FAIL";
+    static final String TIMEOUT = "TIMEOUT";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        long timeoutMillis = Long.parseLong(args[0]) * 1000L;
+        // Keep the standard output for responses only
+        PrintStream out = System.out;
+        System.setOut(System.err);
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] request = line.split(" ", 2);
+            boolean[] ok = new boolean[1];
+            Thread thread = new Thread(() -> ok[0] = run(request[0], request[1]), request[0]);
+            thread.setDaemon(true);
+            thread.start();
+            thread.join(timeoutMillis);
+            if (thread.isAlive()) {
+                out.println(TIMEOUT);
+                out.flush();
+                Runtime.getRuntime().halt(0);
+            }
+            out.println(ok[0] ? OK : FAIL);
+            out.flush();
+        }
+    }
+
+    /**
+     * Returns true if main0 of the class returns.
+     */
+    private static boolean run(String clzName, String dir) {
+        URL[] urls;
+        try {
+            urls = new URL[] {Paths.get(dir).toUri().toURL()};
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        try (URLClassLoader loader = new URLClassLoader(urls, FanOutChecker.class.getClassLoader())) {
+            Method main0 = loader.loadClass(clzName).getMethod("main0", String[].class);
+            main0.invoke(null, (Object) new String[0]);
+            return true;
+        } catch (InvocationTargetException e) {
+            System.err.println(clzName + ": " + e.getCause());
+            return false;
+        } catch (Exception e) {
+            System.err.println(clzName + ": " + e);
+            return false;
+        }
+    }
+}
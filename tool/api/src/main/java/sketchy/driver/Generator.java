@@ -0,0 +1,189 @@
+package sketchy.driver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Generates programs from a template lazily, for use as a library,
+ * e.g.,
+ * <pre>
+ * try (Generator gen = new Generator(srcPath, "--nOutputs=100")) {
+ *     for (Program p : gen) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ * where the options are those of {@link Driver} but the class name,
+ * the source path and the output directory.
+ * <p>
+ * {@link Driver} runs in its own class loader, see
+ * {@link TemplateRunner}, on a thread of the generator once we ask
+ * for the first program, and waits for us to take a program before
+ * going on with the next one. Nothing is written to the disk.
+ * Closing the generator, e.g., to stop early, stops {@link Driver} at
+ * its next program.
+ */
+public class Generator implements Iterable<Program>, AutoCloseable {
+
+    /**
+     * Programs that can be ahead of those we take.
+     */
+    private static final int CAPACITY = 1;
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * Marks the end of the programs in the queue.
+     */
+    private static final Program END = new Program(null, null, null, null);
+
+    private final Path srcPath;
+    private final String clzName;
+    private final List<String> args = new ArrayList<>();
+    private final BlockingQueue<Program> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private Thread thread;
+    private volatile boolean closed;
+    private volatile Throwable error;
+
+    public Generator(Path srcPath, String... options) throws IOException {
+        this.srcPath = srcPath.toAbsolutePath().normalize();
+        this.clzName = TemplateRunner.getClassName(this.srcPath);
+        for (String option : options) {
+            if (option.startsWith("--clzName=") || option.startsWith("--srcPath=")
+                    || option.startsWith("--outputDir=") || option.startsWith("--writeFiles")) {
+                throw new RuntimeException("Generator does not take " + option + "!");
+            }
+        }
+        args.add("--clzName=" + clzName);
+        args.add("--srcPath=" + this.srcPath);
+        args.add("--writeFiles=false");
+        args.addAll(Arrays.asList(options));
+    }
+
+    /**
+     * Returns the programs, which can be iterated only once.
+     */
+    @Override
+    public synchronized Iterator<Program> iterator() {
+        if (thread != null) {
+            throw new RuntimeException("Programs can be iterated only once!");
+        }
+        if (closed) {
+            throw new RuntimeException("Generator is closed!");
+        }
+        thread = new Thread(this::generate, "generator-" + clzName);
+        thread.setDaemon(true);
+        return new ProgramIterator();
+    }
+
+    /**
+     * Returns the programs as a sequential stream, which closes this
+     * generator when closed.
+     */
+    public Stream<Program> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(),
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    private void generate() {
+        try {
+            TemplateRunner.run(srcPath, clzName, args, this::put);
+        } catch (Throwable t) {
+            if (!closed) {
+                error = t;
+            }
+        }
+        try {
+            put(END);
+        } catch (Closed e) {
+            // Nobody takes programs anymore
+        }
+    }
+
+    /**
+     * Waits until there is room for the program, unless we are
+     * closed.
+     */
+    private void put(Program program) {
+        try {
+            while (!queue.offer(program, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (closed) {
+                    throw new Closed();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Closed();
+        }
+    }
+
+    private class ProgramIterator implements Iterator<Program> {
+
+        private Program next;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                if (closed) {
+                    return false;
+                }
+                if (thread.getState() == Thread.State.NEW) {
+                    thread.start();
+                }
+                try {
+                    next = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+            if (next == END) {
+                if (error != null) {
+                    throw new RuntimeException("Failed to generate from " + srcPath + "!", error);
+                }
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public Program next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Program program = next;
+            next = null;
+            return program;
+        }
+    }
+
+    /**
+     * Stops {@link Driver} once the generator is closed.
+     */
+    private static class Closed extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private Closed() {
+            super("Generator is closed!", null, false, false);
+        }
+    }
+}
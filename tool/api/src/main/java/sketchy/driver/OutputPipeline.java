@@ -0,0 +1,249 @@
+package sketchy.driver;
+
+import sketchy.Config;
+import sketchy.compiler.ClassBytes;
+import sketchy.compiler.CompilationException;
+import sketchy.compiler.InMemoryCompiler;
+import sketchy.data.Data;
+import sketchy.guided.Corpus;
+import sketchy.transformer.OutputTransformer;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transforms, compile-checks and writes the programs of normal
+ * generation in three stages, each on its own thread with a bounded
+ * queue, while the main thread goes on running the sketch.
+ * <p>
+ * The main thread counts outputs and repeated trials in the order
+ * the runs end, as if every program were done right after its run,
+ * so we output the same programs with the same names and stop at the
+ * same point. A program that moves up after an earlier one fails to
+ * compile is transformed again with its final name when written.
+ */
+class OutputPipeline {
+
+    /**
+     * Runs that can be ahead of the outputs, which also bounds the
+     * queue of every stage.
+     */
+    private static final int MAX_IN_FLIGHT = 8;
+
+    private final ExecutorService transformStage;
+    private final ExecutorService compileStage;
+    private final ExecutorService writeStage;
+    private final OutputTransformer transformer;
+    /**
+     * Renames programs in the write stage.
+     */
+    private final OutputTransformer renamer;
+    private final InMemoryCompiler compiler = new InMemoryCompiler();
+    /**
+     * Runs in order that are not counted yet.
+     */
+    private final Deque<Task> inFlight = new ArrayDeque<>();
+    private final Deque<Future<?>> writes = new ArrayDeque<>();
+    /**
+     * Number of runs in flight that have a program to output.
+     */
+    private int nOutputsInFlight;
+
+    OutputPipeline(OutputTransformer mainTransformer) {
+        transformer = mainTransformer.copy();
+        renamer = mainTransformer.copy();
+        transformStage = newStage();
+        compileStage = newStage();
+        writeStage = newStage();
+    }
+
+    private static ExecutorService newStage() {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_IN_FLIGHT), r -> {
+                    Thread t = new Thread(r);
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Outputs the program given by the filled holes of this run if it
+     * compiles, otherwise counts it as a repeated trial.
+     *
+     * @param choices the choices to save with the program, or null
+     */
+    void submit(Map<Integer, String> filledHoles, Map<Integer, BigInteger> choices) {
+        int outputIdx = Data.outputCount + nOutputsInFlight + 1;
+        String outputClzName = Driver.getOutputClzName(outputIdx);
+        CompletableFuture<CompiledOutput> code = CompletableFuture
+                .supplyAsync(() -> transformer.setFilledHoles(filledHoles)
+                        .setOutClzName(outputClzName)
+                        .transformAndGetSrcCode(), transformStage)
+                .thenApplyAsync(src -> compile(outputClzName, src), compileStage);
+        inFlight.add(new Task(filledHoles, choices, outputIdx, code));
+        nOutputsInFlight += 1;
+    }
+
+    /**
+     * Counts this run as a repeated trial.
+     */
+    void skip() {
+        inFlight.add(new Task(null, null, 0, null));
+    }
+
+    /**
+     * Returns the program with its classes, or null if it does not
+     * compile.
+     */
+    private CompiledOutput compile(String outputClzName, String code) {
+        if (Config.allowNonCompilableOutput) {
+            return new CompiledOutput(code, null);
+        }
+        try {
+            return new CompiledOutput(code, compiler.compile(outputClzName, code));
+        } catch (CompilationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if we are done, after counting the runs in flight
+     * that come before, and writing their programs. Otherwise counts
+     * the earliest runs until there is room for another one.
+     */
+    boolean isDone() {
+        while (true) {
+            if (Data.isOutputLimitReached()) {
+                // The runs left in flight come after we are done
+                finish();
+                return true;
+            }
+            if (Data.isDone()) {
+                // Done with the search space, which includes the runs
+                // in flight
+                while (!inFlight.isEmpty() && !Data.isOutputLimitReached()) {
+                    countNext();
+                }
+                finish();
+                return true;
+            }
+            if (inFlight.size() >= MAX_IN_FLIGHT
+                    // Do not go beyond the outputs we need
+                    || (nOutputsInFlight > 0 && Data.outputCount + nOutputsInFlight >= Config.nOutputs)) {
+                countNext();
+                continue;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Counts the runs in flight and writes their programs, which
+     * should be invoked before anything else is output.
+     */
+    void flush() {
+        while (!inFlight.isEmpty() && !Data.isOutputLimitReached()) {
+            countNext();
+        }
+        finish();
+    }
+
+    void shutdown() {
+        transformStage.shutdownNow();
+        compileStage.shutdownNow();
+        writeStage.shutdownNow();
+    }
+
+    private void countNext() {
+        Task task = inFlight.poll();
+        if (task.code == null) {
+            Data.repeatedTrials += 1;
+            return;
+        }
+        nOutputsInFlight -= 1;
+        CompiledOutput compiled = get(task.code);
+        if (compiled == null) {
+            Data.repeatedTrials += 1;
+            return;
+        }
+        int outputIdx = Data.outputCount + 1;
+        writes.add(writeStage.submit(() -> write(task, outputIdx, compiled)));
+        Data.outputCount = outputIdx;
+        Data.repeatedTrials = 0;
+        if (writes.size() >= MAX_IN_FLIGHT) {
+            get(writes.poll());
+        }
+    }
+
+    private void write(Task task, int outputIdx, CompiledOutput compiled) {
+        String outputClzName = Driver.getOutputClzName(outputIdx);
+        String code = compiled.code;
+        ClassBytes classBytes = compiled.classBytes;
+        if (outputIdx != task.outputIdx) {
+            // An earlier program failed to compile, so this one moves
+            // up and only needs a new class name.
+            code = renamer.setFilledHoles(task.filledHoles)
+                    .setOutClzName(outputClzName)
+                    .transformAndGetSrcCode();
+            classBytes = null;
+        }
+        // Not Data.outputCount, which the main thread moves on
+        Driver.outputJavaFile(outputClzName, code, task.filledHoles, classBytes, outputIdx - 1);
+        if (task.choices != null) {
+            Driver.sink.append(Config.choicesFile,
+                    Corpus.toLine(outputClzName, task.choices));
+        }
+        Driver.saveRecord(outputIdx, task.filledHoles);
+    }
+
+    /**
+     * Drops the runs left in flight and waits for the writes.
+     */
+    private void finish() {
+        inFlight.clear();
+        nOutputsInFlight = 0;
+        while (!writes.isEmpty()) {
+            get(writes.poll());
+        }
+    }
+
+    private static <T> T get(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static class Task {
+
+        private final Map<Integer, String> filledHoles;
+        private final Map<Integer, BigInteger> choices;
+        private final int outputIdx;
+        /**
+         * The program that compiles, or null if it does not; null
+         * for a repeated trial.
+         */
+        private final Future<CompiledOutput> code;
+
+        private Task(Map<Integer, String> filledHoles, Map<Integer, BigInteger> choices,
+                     int outputIdx, Future<CompiledOutput> code) {
+            this.filledHoles = filledHoles;
+            this.choices = choices;
+            this.outputIdx = outputIdx;
+            this.code = code;
+        }
+    }
+}
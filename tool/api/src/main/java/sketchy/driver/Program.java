@@ -0,0 +1,36 @@
+package sketchy.driver;
+
+import java.util.Map;
+
+/**
+ * A generated program as given to {@link Driver#outputListener}.
+ * <p>
+ * {@link TemplateRunner} loads this class from the parent class
+ * loader, so programs pass from a run to its caller as they are, and
+ * this class must refer to no other class of ours.
+ */
+public class Program {
+
+    public final String className;
+    public final String code;
+    /**
+     * Maps hole identifiers to string representations of the filled
+     * holes, which is empty for programs without filled holes.
+     */
+    public final Map<Integer, String> filledHoles;
+    /**
+     * Maps class names to the bytes of the classes of the program
+     * from its compile-check, or null if it is not compiled as is,
+     * e.g., when non-compilable outputs are allowed, or it is renamed
+     * after an earlier program fails to compile.
+     */
+    public final Map<String, byte[]> classBytes;
+
+    public Program(String className, String code,
+                   Map<Integer, String> filledHoles, Map<String, byte[]> classBytes) {
+        this.className = className;
+        this.code = code;
+        this.filledHoles = filledHoles;
+        this.classBytes = classBytes;
+    }
+}
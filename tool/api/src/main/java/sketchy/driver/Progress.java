@@ -0,0 +1,83 @@
+package sketchy.driver;
+
+import sketchy.Config;
+import sketchy.data.Data;
+import sketchy.log.Log;
+
+import java.math.BigInteger;
+
+/**
+ * Reports progress of generation and an estimated time to finish,
+ * every {@link Config#progressInterval} seconds, at the info level of
+ * logging.
+ */
+class Progress {
+
+    private static long begTime = -1;
+    private static long lastReportTime;
+
+    /**
+     * Reports progress if it is time to.
+     */
+    static void tick() {
+        long now = System.currentTimeMillis();
+        if (begTime == -1) {
+            begTime = now;
+            lastReportTime = now;
+            return;
+        }
+        if (now - lastReportTime < Config.progressInterval * 1000L) {
+            return;
+        }
+        lastReportTime = now;
+        double secs = (now - begTime) / 1000.0;
+        double runsPerSec = Data.runCount / secs;
+        double outputsPerSec = Data.outputCount / secs;
+
+        StringBuilder msg = new StringBuilder();
+        msg.append("Progress: ").append(Data.runCount).append(" runs, ")
+                .append(Data.outputCount).append(" outputs, ")
+                .append(String.format("%.1f runs/s", runsPerSec));
+        BigInteger remainingRuns = getRemainingRuns();
+        if (remainingRuns != null && runsPerSec > 0) {
+            msg.append(", ").append(remainingRuns).append(" runs to go, ETA ")
+                    .append(formatSecs(remainingRuns.doubleValue() / runsPerSec));
+        } else if (!isExhaustive() && outputsPerSec > 0) {
+            int remainingOutputs = Config.nOutputs - Data.outputCount;
+            msg.append(", ").append(remainingOutputs).append(" outputs to go, ETA ")
+                    .append(formatSecs(remainingOutputs / outputsPerSec));
+        }
+        Log.info(msg);
+    }
+
+    private static boolean isExhaustive() {
+        return Config.isExhaustive
+                && (Config.ss == SearchStrategy.SYSTEMATIC || Config.ss == SearchStrategy.SMART);
+    }
+
+    /**
+     * Returns the number of runs left in systematic exploration, or
+     * null if unknown.
+     */
+    private static BigInteger getRemainingRuns() {
+        if (Config.ss != SearchStrategy.SYSTEMATIC) {
+            return null;
+        }
+        BigInteger end = Config.sysEnd;
+        if (Config.isExhaustive) {
+            BigInteger size = Data.getSysSpaceSize();
+            if (size != null && (end == null || size.compareTo(end) < 0)) {
+                end = size;
+            }
+        }
+        if (end == null) {
+            return null;
+        }
+        return end.subtract(Data.sysIdx).max(BigInteger.ZERO);
+    }
+
+    private static String formatSecs(double secs) {
+        long s = (long) secs;
+        return String.format("%d:%02d:%02d", s / 3600, s / 60 % 60, s % 60);
+    }
+}
@@ -18,5 +18,17 @@ public enum SearchStrategy {
     /**
      * Systematically explore each hole independently.
      */
-    SMART
+    SMART,
+
+    /**
+     * Randomly explore holes biased toward choices that led to new
+     * JIT optimizations in previously generated programs.
+     */
+    GUIDED,
+
+    /**
+     * Explore small changes of programs whose choices of holes are
+     * recorded in a corpus.
+     */
+    MUTATION
 }
@@ -0,0 +1,56 @@
+package sketchy.driver;
+
+import sketchy.ast.Node;
+import sketchy.data.Data;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Estimates the size of the systematic search space of a sketch
+ * without running it, from the ASTs of holes in
+ * {@link Data#getASTCache()}, which must be created in systematic
+ * style.
+ * <p>
+ * Identifiers are inferred statically, which gives every variable in
+ * scope rather than only the ones initialized when a hole is
+ * reached, so the counts are upper bounds for holes with inferred
+ * identifiers. The overall count assumes every hole is reached.
+ */
+class SpaceEstimator {
+
+    /**
+     * Returns the report of counts of choices of every hole and of
+     * the whole search space.
+     */
+    static String report() {
+        StringBuilder out = new StringBuilder();
+        BigInteger total = BigInteger.ONE;
+        int nUnknown = 0;
+        for (Map.Entry<Integer, Node<?>> e : new TreeMap<>(Data.getASTCache()).entrySet()) {
+            int holeId = e.getKey();
+            Node<?> ast = e.getValue();
+            Data.setCurrHoleId(holeId);
+            // Stepping through choices to count them is not an option
+            // since some choices depend on values at runtime, e.g.,
+            // inferred array indices.
+            BigInteger n = ast.itr().size();
+            out.append("hole ").append(holeId)
+                    .append(" (").append(ast.getClass().getSimpleName()).append("): ")
+                    .append(n == null ? "unknown" : n).append("\n");
+            if (n == null) {
+                nUnknown++;
+            } else {
+                total = total.multiply(n);
+            }
+        }
+        out.append("total: ").append(total);
+        if (nUnknown > 0) {
+            out.append(" times choices of ").append(nUnknown)
+                    .append(" hole(s) of unknown size");
+        }
+        out.append("\n");
+        return out.toString();
+    }
+}
@@ -0,0 +1,169 @@
+package sketchy.driver;
+
+import sketchy.Config;
+import sketchy.compiler.ClassBytes;
+import sketchy.compiler.CompilationException;
+import sketchy.compiler.InMemoryCompiler;
+import sketchy.data.Data;
+import sketchy.transformer.OutputTransformer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Transforms and compile-checks programs of static generation on
+ * {@link Config#staticGenThreads} threads, each with its own
+ * transformer and compiler.
+ * <p>
+ * Sampling and deduplication stay in the main thread, as every hole
+ * has only one AST to step, and sampling is cheap compared to
+ * compiling. Programs are output in the order they are sampled and
+ * named as if they were done one by one.
+ */
+class StaticGenPool {
+
+    private final ExecutorService executor;
+    private final BlockingQueue<OutputTransformer> transformers;
+    private final BlockingQueue<InMemoryCompiler> compilers;
+    /**
+     * The transformer of the main thread, to rename a program when
+     * an earlier one fails to compile.
+     */
+    private final OutputTransformer mainTransformer;
+    /**
+     * Programs in sampling order that are not output yet, at most
+     * two per thread.
+     */
+    private final Deque<Task> inFlight = new ArrayDeque<>();
+    private final int maxInFlight;
+
+    StaticGenPool(OutputTransformer mainTransformer, int nThreads) {
+        this.mainTransformer = mainTransformer;
+        this.maxInFlight = 2 * nThreads;
+        executor = Executors.newFixedThreadPool(nThreads, r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            return t;
+        });
+        transformers = new ArrayBlockingQueue<>(nThreads);
+        compilers = new ArrayBlockingQueue<>(nThreads);
+        for (int i = 0; i < nThreads; i++) {
+            transformers.add(mainTransformer.copy());
+            compilers.add(new InMemoryCompiler());
+        }
+    }
+
+    /**
+     * Transforms and compile-checks the program given by the filled
+     * holes in a worker thread.
+     */
+    void submit(Map<Integer, String> filledHoles) {
+        int outputIdx = Data.outputCount + inFlight.size() + 1;
+        String outputClzName = Driver.getOutputClzName(outputIdx);
+        Future<CompiledOutput> code = executor.submit(() -> {
+            OutputTransformer transformer = transformers.take();
+            InMemoryCompiler compiler = compilers.take();
+            try {
+                String src = transformer.setFilledHoles(filledHoles)
+                        .setOutClzName(outputClzName)
+                        .transformAndGetSrcCode();
+                ClassBytes classBytes = null;
+                if (!Config.allowNonCompilableOutput) {
+                    classBytes = compiler.compile(outputClzName, src);
+                }
+                return new CompiledOutput(src, classBytes);
+            } catch (CompilationException e) {
+                return null;
+            } finally {
+                transformers.add(transformer);
+                compilers.add(compiler);
+            }
+        });
+        inFlight.add(new Task(filledHoles, outputIdx, code));
+    }
+
+    /**
+     * Returns true if we are done, after outputting the programs in
+     * flight. Otherwise outputs the earliest programs until there is
+     * room for another one.
+     */
+    boolean isDone() {
+        while (true) {
+            if (Data.isDone()) {
+                while (!inFlight.isEmpty()) {
+                    outputNext();
+                }
+                return true;
+            }
+            if (inFlight.size() >= maxInFlight
+                    // Do not go beyond the outputs we need
+                    || (!inFlight.isEmpty() && Data.outputCount + inFlight.size() >= Config.nOutputs)) {
+                outputNext();
+                continue;
+            }
+            return false;
+        }
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Outputs the earliest program in flight if it compiles,
+     * otherwise counts it as a repeated trial.
+     */
+    private void outputNext() {
+        Task task = inFlight.poll();
+        CompiledOutput compiled;
+        try {
+            compiled = task.code.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        if (compiled == null) {
+            Data.repeatedTrials += 1;
+            return;
+        }
+        int outputIdx = Data.outputCount + 1;
+        String outputClzName = Driver.getOutputClzName(outputIdx);
+        String code = compiled.code;
+        ClassBytes classBytes = compiled.classBytes;
+        if (outputIdx != task.outputIdx) {
+            // An earlier program failed to compile, so this one moves
+            // up and only needs a new class name.
+            code = mainTransformer.setFilledHoles(task.filledHoles)
+                    .setOutClzName(outputClzName)
+                    .transformAndGetSrcCode();
+            mainTransformer.setFilledHoles(null);
+            classBytes = null;
+        }
+        Driver.outputJavaFile(outputClzName, code, task.filledHoles, classBytes, Data.outputCount);
+        Driver.saveRecord(outputIdx, task.filledHoles);
+        Data.outputCount = outputIdx;
+        Data.repeatedTrials = 0;
+    }
+
+    private static class Task {
+
+        private final Map<Integer, String> filledHoles;
+        private final int outputIdx;
+        private final Future<CompiledOutput> code;
+
+        private Task(Map<Integer, String> filledHoles, int outputIdx, Future<CompiledOutput> code) {
+            this.filledHoles = filledHoles;
+            this.outputIdx = outputIdx;
+            this.code = code;
+        }
+    }
+}
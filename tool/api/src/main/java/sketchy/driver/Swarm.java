@@ -0,0 +1,52 @@
+package sketchy.driver;
+
+import sketchy.util.UniqueList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Swarm testing, which enables a random half of features in every
+ * run, so different generated programs stress different features
+ * rather than being statistically alike.
+ * <p>
+ * A feature is an operator or the class of an alternative
+ * expression, decided the first time it is asked about in a run.
+ */
+public class Swarm {
+
+    /**
+     * Whether each feature is enabled.
+     * <p>
+     * Reset per run.
+     */
+    private static Map<Object, Boolean> enabled = new HashMap<>();
+
+    public static void reset() {
+        enabled = new HashMap<>();
+    }
+
+    public static boolean isEnabled(Object feature) {
+        return enabled.computeIfAbsent(feature, f -> Driver.rand.nextBoolean());
+    }
+
+    /**
+     * Randomly picks one of the given choices whose features are
+     * enabled, or one of all the choices if none is enabled.
+     */
+    public static <E> E pick(UniqueList<E> choices, Function<E, Object> featureOf) {
+        List<E> enabledChoices = new ArrayList<>(choices.size());
+        for (E c : choices) {
+            if (isEnabled(featureOf.apply(c))) {
+                enabledChoices.add(c);
+            }
+        }
+        if (enabledChoices.isEmpty()) {
+            return choices.pick(Driver.rand);
+        }
+        return enabledChoices.get(Driver.rand.nextInt(enabledChoices.size()));
+    }
+}
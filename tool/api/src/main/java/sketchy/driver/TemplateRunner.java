@@ -0,0 +1,150 @@
+package sketchy.driver;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import sketchy.compiler.ClassBytes;
+import sketchy.compiler.CompilationException;
+import sketchy.compiler.InMemoryCompiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Runs {@link Driver} on a template in a class loader of its own,
+ * which loads our classes and JavaParser again, so runs share no
+ * static state, e.g., {@link sketchy.data.Data}, and can go on at the
+ * same time in one JVM. Other classes, e.g., the JDK compiler and Z3
+ * with its native library, come from the parent, so they are loaded
+ * and warmed up only once, and so does {@link Program}, which runs
+ * hand over to their callers. The template is compiled in memory.
+ */
+class TemplateRunner {
+
+    /**
+     * Classes that every run loads on its own.
+     */
+    private static final String[] ISOLATED_PKGS = {"sketchy.", "com.github.javaparser."};
+    /**
+     * Classes of the isolated packages that every run shares.
+     */
+    private static final String[] SHARED_CLZS = {Program.class.getName()};
+
+    /**
+     * Returns the fully qualified name of the template class.
+     */
+    static String getClassName(Path srcPath) throws IOException {
+        CompilationUnit cu = StaticJavaParser.parse(srcPath);
+        String simpleName = srcPath.getFileName().toString().replaceFirst("\\.java$", "");
+        return cu.getPackageDeclaration()
+                .map(pkg -> pkg.getNameAsString() + "." + simpleName)
+                .orElse(simpleName);
+    }
+
+    /**
+     * Runs {@link Driver} with the given arguments on the template,
+     * which is compiled first, as {@link Driver} looks into its class.
+     *
+     * @param outputListener receives every output program, or null
+     */
+    static void run(Path srcPath, String clzName, List<String> args,
+                    Consumer<Program> outputListener) throws Exception {
+        ClassBytes templateBytes;
+        try {
+            templateBytes = new InMemoryCompiler().compile(clzName, new String(Files.readAllBytes(srcPath)));
+        } catch (CompilationException e) {
+            throw new RuntimeException("Failed to compile template " + srcPath + "!");
+        }
+        Thread thread = Thread.currentThread();
+        ClassLoader prevCl = thread.getContextClassLoader();
+        try (TemplateClassLoader cl = new TemplateClassLoader(templateBytes)) {
+            thread.setContextClassLoader(cl);
+            Class<?> driverClz = Class.forName(Driver.class.getName(), true, cl);
+            driverClz.getField("outputListener").set(null, outputListener);
+            driverClz.getMethod("main", String[].class)
+                    .invoke(null, (Object) args.toArray(new String[0]));
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw (Error) e.getCause();
+        } finally {
+            thread.setContextClassLoader(prevCl);
+        }
+    }
+
+    /**
+     * Loads our classes and the template on its own, and the others
+     * from the parent.
+     */
+    private static class TemplateClassLoader extends URLClassLoader {
+
+        static {
+            registerAsParallelCapable();
+        }
+
+        private final ClassBytes templateBytes;
+
+        private TemplateClassLoader(ClassBytes templateBytes) throws MalformedURLException {
+            super(getUrls(), TemplateRunner.class.getClassLoader());
+            this.templateBytes = templateBytes;
+        }
+
+        private static URL[] getUrls() throws MalformedURLException {
+            List<URL> urls = new ArrayList<>();
+            for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+                urls.add(Paths.get(entry).toUri().toURL());
+            }
+            return urls.toArray(new URL[0]);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = templateBytes.get(name);
+            if (bytes != null) {
+                return defineClass(name, bytes, 0, bytes.length);
+            }
+            return super.findClass(name);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!isIsolated(name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    c = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(c);
+                }
+                return c;
+            }
+        }
+
+        private static boolean isIsolated(String name) {
+            for (String clz : SHARED_CLZS) {
+                if (name.equals(clz)) {
+                    return false;
+                }
+            }
+            for (String pkg : ISOLATED_PKGS) {
+                if (name.startsWith(pkg)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
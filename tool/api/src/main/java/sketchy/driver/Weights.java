@@ -0,0 +1,127 @@
+package sketchy.driver;
+
+import sketchy.Config;
+import sketchy.util.AliasTable;
+import sketchy.util.UniqueList;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Weighted random choices given by {@link Config#weights}.
+ * <p>
+ * A choice is named by its operator name, e.g., {@code MUL} or
+ * {@code AriOp.MUL}, its identifier, or its literal value, e.g.,
+ * {@code -1}, {@code MIN_VALUE} or {@code Integer.MIN_VALUE}. Choices
+ * without weights weigh 1, and lists of choices without any weights
+ * are picked uniformly as before. Alias tables are built once per
+ * list of choices.
+ */
+public class Weights {
+
+    /**
+     * Name of the weight of a free literal, i.e., any value of its
+     * type rather than one from the literal pool.
+     */
+    public static final String FREE = "*";
+
+    private static final Map<List<?>, AliasTable> tables = new IdentityHashMap<>();
+
+    /**
+     * Randomly picks one of the given choices by their weights.
+     */
+    public static <E> E pick(UniqueList<E> choices) {
+        if (!tables.containsKey(choices)) {
+            tables.put(choices, buildTable(choices, false));
+        }
+        AliasTable table = tables.get(choices);
+        return table == null ?
+                choices.pick(Driver.rand) :
+                choices.get(table.sample(Driver.rand));
+    }
+
+    /**
+     * Randomly picks a free literal, which is either one of the
+     * given pool, e.g., {@link Config#ints}, or any value given by
+     * {@code free}. Only values of the pool with weights are picked,
+     * against the weight of {@link #FREE}.
+     */
+    public static <E> E pickLiteral(List<E> pool, Supplier<E> free) {
+        if (!tables.containsKey(pool)) {
+            tables.put(pool, buildTable(pool, true));
+        }
+        AliasTable table = tables.get(pool);
+        if (table == null) {
+            return free.get();
+        }
+        int i = table.sample(Driver.rand);
+        return i == pool.size() ? free.get() : pool.get(i);
+    }
+
+    /**
+     * Returns the alias table of the given choices, or null if none
+     * of them has a weight. A free literal follows the choices if
+     * {@code withFree}, in which case choices without weights are
+     * never picked.
+     */
+    private static AliasTable buildTable(List<?> choices, boolean withFree) {
+        boolean hasWeight = false;
+        double[] weights = new double[withFree ? choices.size() + 1 : choices.size()];
+        for (int i = 0; i < choices.size(); i++) {
+            Double w = weightOf(choices.get(i));
+            if (w != null) {
+                weights[i] = w;
+                hasWeight = true;
+            } else {
+                weights[i] = withFree ? 0 : 1;
+            }
+        }
+        if (!hasWeight) {
+            return null;
+        }
+        if (withFree) {
+            weights[choices.size()] = Config.weights.getOrDefault(FREE, 1.0);
+        }
+        return new AliasTable(weights);
+    }
+
+    private static Double weightOf(Object choice) {
+        for (String name : namesOf(choice)) {
+            Double w = Config.weights.get(name);
+            if (w != null) {
+                return w;
+            }
+        }
+        return null;
+    }
+
+    private static List<String> namesOf(Object choice) {
+        List<String> names = new ArrayList<>();
+        if (choice instanceof Enum) {
+            Enum<?> e = (Enum<?>) choice;
+            names.add(e.getDeclaringClass().getSimpleName() + "." + e.name());
+            names.add(e.name());
+            return names;
+        }
+        names.add(String.valueOf(choice));
+        String constant = null;
+        if (choice instanceof Integer) {
+            int v = (Integer) choice;
+            constant = v == Integer.MIN_VALUE ? "MIN_VALUE" : v == Integer.MAX_VALUE ? "MAX_VALUE" : null;
+        } else if (choice instanceof Long) {
+            long v = (Long) choice;
+            constant = v == Long.MIN_VALUE ? "MIN_VALUE" : v == Long.MAX_VALUE ? "MAX_VALUE" : null;
+        } else if (choice instanceof Double) {
+            double v = (Double) choice;
+            constant = v == Double.MIN_VALUE ? "MIN_VALUE" : v == Double.MAX_VALUE ? "MAX_VALUE" : null;
+        }
+        if (constant != null) {
+            names.add(choice.getClass().getSimpleName() + "." + constant);
+            names.add(constant);
+        }
+        return names;
+    }
+}
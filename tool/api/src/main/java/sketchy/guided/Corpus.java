@@ -0,0 +1,69 @@
+package sketchy.guided;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Class to write and read choices of holes of generated programs,
+ * one program per line in the form of
+ * {@code class,holeId:index holeId:index ...}, where an index is the
+ * index of the choice in the systematic choices of the hole.
+ */
+public class Corpus {
+
+    public static final String HEADER = "class,choices\n";
+
+    public static String toLine(String clzName, Map<Integer, BigInteger> choices) {
+        StringBuilder out = new StringBuilder(clzName).append(",");
+        boolean isFirst = true;
+        for (Map.Entry<Integer, BigInteger> e : choices.entrySet()) {
+            if (!isFirst) {
+                out.append(" ");
+            }
+            isFirst = false;
+            out.append(e.getKey()).append(":").append(e.getValue());
+        }
+        return out.append("\n").toString();
+    }
+
+    /**
+     * Returns the choices of every program in the given file.
+     */
+    public static List<Map<Integer, BigInteger>> load(String file) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(Paths.get(file));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        List<Map<Integer, BigInteger>> corpus = new ArrayList<>();
+        for (String line : lines) {
+            if (line.isEmpty() || (line + "\n").equals(HEADER)) {
+                continue;
+            }
+            int pos = line.indexOf(',');
+            if (pos == -1) {
+                throw new RuntimeException("Malformed choices: " + line + "!");
+            }
+            Map<Integer, BigInteger> choices = new TreeMap<>();
+            for (String choice : line.substring(pos + 1).trim().split("\\s+")) {
+                if (choice.isEmpty()) {
+                    continue;
+                }
+                String[] kv = choice.split(":");
+                if (kv.length != 2) {
+                    throw new RuntimeException("Malformed choice: " + choice + "!");
+                }
+                choices.put(Integer.parseInt(kv[0]), new BigInteger(kv[1]));
+            }
+            corpus.add(choices);
+        }
+        return corpus;
+    }
+}
@@ -0,0 +1,111 @@
+package sketchy.guided;
+
+import sketchy.driver.Driver;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Feedback for the guided search strategy.
+ * <p>
+ * A choice of a hole is an index into its systematic choices. We
+ * keep a corpus of choices of the runs whose generated programs
+ * reached new JIT optimization features or a new combination of
+ * them. Most runs start from a program in the corpus, preferring
+ * ones that found more, and re-pick the choices of some holes; the
+ * rest pick every choice uniformly.
+ */
+public class Guidance {
+
+    /**
+     * Chance (in percent) a run starts from a program in the corpus.
+     */
+    private static final int PARENT_CHANCE = 75;
+
+    /**
+     * Chance (in percent) a hole re-picks its choice when a run
+     * starts from a program in the corpus.
+     */
+    private static final int MUTATION_CHANCE = 25;
+
+    private static final Set<String> seenFeatures = new HashSet<>();
+    private static final Set<Set<String>> seenSignatures = new HashSet<>();
+
+    private static final List<Map<Integer, BigInteger>> corpus = new ArrayList<>();
+    private static final List<Integer> corpusWeights = new ArrayList<>();
+    private static int totalWeight = 0;
+
+    /* Per run. */
+    private static Map<Integer, BigInteger> parent;
+    private static int holeToMutate;
+    private static Map<Integer, BigInteger> choices;
+
+    /**
+     * Decides where the next run starts from.
+     */
+    public static void startRun() {
+        choices = new HashMap<>();
+        parent = null;
+        if (corpus.isEmpty() || Driver.rand.nextInt(100) >= PARENT_CHANCE) {
+            return;
+        }
+        int w = Driver.rand.nextInt(totalWeight);
+        int i = 0;
+        while (w >= corpusWeights.get(i)) {
+            w -= corpusWeights.get(i);
+            i++;
+        }
+        parent = corpus.get(i);
+        // Mutate at least one hole so we do not simply repeat the
+        // parent.
+        List<Integer> holes = new ArrayList<>(parent.keySet());
+        holeToMutate = holes.get(Driver.rand.nextInt(holes.size()));
+    }
+
+    /**
+     * Returns the index of the choice of the given hole with the
+     * given number of choices, or null if the number is unknown, in
+     * which case the hole should step randomly.
+     */
+    public static BigInteger pick(int holeId, BigInteger size) {
+        if (size == null || size.signum() == 0) {
+            return null;
+        }
+        BigInteger idx = parent == null ? null : parent.get(holeId);
+        if (idx == null
+                || idx.compareTo(size) >= 0
+                || holeId == holeToMutate
+                || Driver.rand.nextInt(100) < MUTATION_CHANCE) {
+            idx = Driver.rand.nextBigInteger(size);
+        }
+        choices.put(holeId, idx);
+        return idx;
+    }
+
+    /**
+     * Takes the features of the program generated by the current
+     * run, and keeps its choices if it found anything new. Returns
+     * the number of new features.
+     */
+    public static int feedback(Set<String> features) {
+        int nNew = 0;
+        for (String f : features) {
+            if (seenFeatures.add(f)) {
+                nNew++;
+            }
+        }
+        boolean isNewSignature = seenSignatures.add(features);
+        if ((nNew > 0 || isNewSignature) && !choices.isEmpty()) {
+            int weight = 1 + nNew;
+            corpus.add(choices);
+            corpusWeights.add(weight);
+            totalWeight += weight;
+        }
+        return nNew;
+    }
+}
@@ -0,0 +1,155 @@
+package sketchy.guided;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Class to parse a HotSpot compilation log given by
+ * {@code -XX:+LogCompilation} into optimization features, e.g.,
+ * {@code uncommon_trap:range_check}, {@code loop:main_loop} or
+ * {@code eliminate_allocation}.
+ * <p>
+ * We only care about compilations of methods of the given class and
+ * its nested classes, so compilations of JDK methods do not dilute
+ * the features.
+ */
+public class JitLogParser {
+
+    private static final Pattern TAG = Pattern.compile("<(\\w+)((?:\\s+\\w+='[^']*')*)\\s*/?>");
+    private static final Pattern ATTR = Pattern.compile("(\\w+)='([^']*)'");
+
+    private final String clzName;
+
+    /**
+     * Compilation ids of methods of the class.
+     */
+    private final Set<String> compileIds = new HashSet<>();
+
+    private final Set<String> features = new TreeSet<>();
+
+    public JitLogParser(String clzName) {
+        this.clzName = clzName;
+    }
+
+    /**
+     * Returns the features in the given lines of the log.
+     */
+    public Set<String> parse(List<String> lines) {
+        // Events out of compilations, e.g., deoptimization, may come
+        // before the compilations they refer to.
+        for (String line : lines) {
+            Matcher m = TAG.matcher(line);
+            while (m.find()) {
+                if (m.group(1).equals("task") || m.group(1).equals("task_queued")) {
+                    Map<String, String> attrs = parseAttrs(m.group(2));
+                    if (isOfClz(attrs.get("method"))) {
+                        compileIds.add(attrs.get("compile_id"));
+                    }
+                }
+            }
+        }
+        boolean inTask = false;
+        for (String line : lines) {
+            if (line.startsWith("</task>")) {
+                inTask = false;
+                continue;
+            }
+            Matcher m = TAG.matcher(line);
+            while (m.find()) {
+                String tag = m.group(1);
+                Map<String, String> attrs = parseAttrs(m.group(2));
+                if (tag.equals("task")) {
+                    inTask = compileIds.contains(attrs.get("compile_id"));
+                    if (inTask) {
+                        addFeature(tag, "level=" + attrs.get("level"));
+                        if (attrs.containsKey("compile_kind")) {
+                            addFeature(tag, attrs.get("compile_kind"));
+                        }
+                    }
+                } else if (inTask) {
+                    collectInTask(tag, attrs);
+                } else if (compileIds.contains(attrs.get("compile_id"))) {
+                    collectOutOfTask(tag, attrs);
+                }
+            }
+        }
+        return features;
+    }
+
+    private void collectInTask(String tag, Map<String, String> attrs) {
+        switch (tag) {
+        case "uncommon_trap": {
+            addFeature(tag, attrs.get("reason"));
+            break;
+        }
+        case "intrinsic": {
+            addFeature(tag, attrs.get("id"));
+            break;
+        }
+        case "phase": {
+            addFeature(tag, attrs.get("name"));
+            break;
+        }
+        case "loop": {
+            // Flags such as inner_loop, pre_loop, main_loop and
+            // post_loop, where the latter three come from range check
+            // elimination and unrolling.
+            for (String attr : attrs.keySet()) {
+                if (!attr.equals("idx")) {
+                    addFeature(tag, attr);
+                }
+            }
+            break;
+        }
+        case "eliminate_allocation":
+        case "eliminate_boxing":
+        case "eliminate_lock": {
+            // Escape analysis
+            addFeature(tag, null);
+            break;
+        }
+        default:
+            break;
+        }
+    }
+
+    private void collectOutOfTask(String tag, Map<String, String> attrs) {
+        switch (tag) {
+        case "deoptimized":
+        case "uncommon_trap": {
+            addFeature(tag, attrs.get("reason"));
+            break;
+        }
+        case "make_not_entrant": {
+            addFeature(tag, null);
+            break;
+        }
+        default:
+            break;
+        }
+    }
+
+    private void addFeature(String tag, String detail) {
+        features.add(detail == null ? tag : tag + ":" + detail);
+    }
+
+    private boolean isOfClz(String method) {
+        return method != null
+                && (method.startsWith(clzName + " ") || method.startsWith(clzName + "$"));
+    }
+
+    private static Map<String, String> parseAttrs(String s) {
+        Map<String, String> attrs = new HashMap<>();
+        Matcher m = ATTR.matcher(s);
+        while (m.find()) {
+            attrs.put(m.group(1), m.group(2));
+        }
+        return attrs;
+    }
+}
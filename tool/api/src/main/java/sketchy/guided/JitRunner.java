@@ -0,0 +1,103 @@
+package sketchy.guided;
+
+import sketchy.Config;
+import sketchy.compiler.ClassBytes;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Class to run a generated program in a child JVM with compilation
+ * logging and return the optimization features of the JIT compilers.
+ */
+public class JitRunner {
+
+    private static final String LOG_FILE = "jit.log";
+
+    /**
+     * Runs the main method of the class with the given simple name
+     * among the given compiled classes, and returns the features
+     * parsed by {@link JitLogParser}. The child JVM is killed after
+     * {@link Config#guidedTimeout} seconds, in which case the
+     * features are whatever the log has.
+     */
+    public static Set<String> run(ClassBytes classBytes, String clzSimpleName) {
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("sketchy-jit");
+            String mainClz = null;
+            for (Map.Entry<String, byte[]> e : classBytes.getBytesByClass().entrySet()) {
+                String className = e.getKey();
+                Path file = dir.resolve(className.replace('.', File.separatorChar) + ".class");
+                Files.createDirectories(file.getParent());
+                Files.write(file, e.getValue());
+                if (className.equals(clzSimpleName) || className.endsWith("." + clzSimpleName)) {
+                    mainClz = className;
+                }
+            }
+            if (mainClz == null) {
+                throw new RuntimeException("No class " + clzSimpleName + " to run!");
+            }
+
+            Path log = dir.resolve(LOG_FILE);
+            List<String> cmd = new LinkedList<>();
+            cmd.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            cmd.add("-cp");
+            cmd.add(dir + File.pathSeparator + System.getProperty("java.class.path"));
+            // Compile in the foreground so the log does not depend on
+            // how fast compiler threads are.
+            cmd.add("-Xbatch");
+            cmd.add("-XX:+UnlockDiagnosticVMOptions");
+            cmd.add("-XX:+LogCompilation");
+            cmd.add("-XX:LogFile=" + log);
+            cmd.add("-XX:-DisplayVMOutput");
+            cmd.addAll(Config.guidedJvmArgs);
+            cmd.add(mainClz);
+
+            Process p = new ProcessBuilder(cmd)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (!p.waitFor(Config.guidedTimeout, TimeUnit.SECONDS)) {
+                p.destroyForcibly();
+                p.waitFor();
+            }
+            if (Files.notExists(log)) {
+                return new TreeSet<>();
+            }
+            List<String> lines = Files.readAllLines(log, StandardCharsets.ISO_8859_1);
+            return new JitLogParser(mainClz).parse(lines);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            if (dir != null) {
+                deleteDir(dir);
+            }
+        }
+    }
+
+    private static void deleteDir(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
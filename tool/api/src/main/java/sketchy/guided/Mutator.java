@@ -0,0 +1,95 @@
+package sketchy.guided;
+
+import sketchy.Config;
+import sketchy.ast.Node;
+import sketchy.ast.exp.iterator.Itr;
+import sketchy.driver.Driver;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mutation for the mutation search strategy.
+ * <p>
+ * Every run starts from the choices of a program in the corpus read
+ * from {@link Config#corpusFile} and changes one small part of one
+ * hole, e.g., an operator, an identifier or a literal. Holes the
+ * program does not have a choice for pick theirs randomly.
+ */
+public class Mutator {
+
+    private static List<Map<Integer, BigInteger>> corpus;
+
+    /* Per run. */
+    private static Map<Integer, BigInteger> parent;
+    private static int holeToMutate;
+
+    /**
+     * Decides which program the next run mutates.
+     */
+    public static void startRun() {
+        if (corpus == null) {
+            corpus = new ArrayList<>();
+            for (Map<Integer, BigInteger> choices : Corpus.load(Config.corpusFile)) {
+                if (!choices.isEmpty()) {
+                    corpus.add(choices);
+                }
+            }
+            if (corpus.isEmpty()) {
+                throw new RuntimeException("No choices in " + Config.corpusFile + "!");
+            }
+        }
+        parent = corpus.get(Driver.rand.nextInt(corpus.size()));
+        List<Integer> holes = new ArrayList<>(parent.keySet());
+        holeToMutate = holes.get(Driver.rand.nextInt(holes.size()));
+    }
+
+    /**
+     * Explores the choice of the given hole.
+     */
+    public static void step(int holeId, Node<?> ast) {
+        Itr itr = ast.itr();
+        BigInteger size = itr.size();
+        BigInteger idx = parent.get(holeId);
+        if (size == null || size.signum() == 0) {
+            ast.stepRand();
+            return;
+        }
+        if (idx == null || idx.compareTo(size) >= 0) {
+            itr.seek(Driver.rand.nextBigInteger(size));
+            return;
+        }
+        itr.seek(idx);
+        if (holeId == holeToMutate) {
+            mutate(itr);
+        }
+    }
+
+    /**
+     * Changes one of the smallest parts of the current choice of the
+     * given iterator to a different choice.
+     */
+    private static void mutate(Itr itr) {
+        List<Itr> leaves = new ArrayList<>();
+        itr.collectLeaves(leaves);
+        Itr leaf = leaves.isEmpty() ? itr : leaves.get(Driver.rand.nextInt(leaves.size()));
+        BigInteger size = leaf.size();
+        BigInteger curr = leaf.index();
+        if (size.compareTo(BigInteger.ONE) <= 0 || curr == null) {
+            return;
+        }
+        // Pick uniformly among the other choices
+        BigInteger next = Driver.rand.nextBigInteger(size.subtract(BigInteger.ONE));
+        if (next.compareTo(curr) >= 0) {
+            next = next.add(BigInteger.ONE);
+        }
+        leaf.seek(next);
+        // Bring the whole iterator in line with its changed part
+        BigInteger index = itr.index();
+        if (index != null) {
+            itr.seek(index);
+        }
+    }
+}
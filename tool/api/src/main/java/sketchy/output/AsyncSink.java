@@ -0,0 +1,184 @@
+package sketchy.output;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes to another sink on a thread of its own, in batches of what
+ * piles up while the previous batch is written, and flushes that sink
+ * after every batch. An error of the writer is thrown by the next
+ * call.
+ */
+public class AsyncSink implements OutputSink {
+
+    /**
+     * Writes that can be pending before we wait for the writer.
+     */
+    private static final int CAPACITY = 1024;
+
+    private final OutputSink sink;
+    private final BlockingQueue<Op> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private final Thread writer;
+    private volatile Throwable error;
+
+    public AsyncSink(OutputSink sink) {
+        this.sink = sink;
+        writer = new Thread(this::drain, "async-sink");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void write(String file, byte[] contents) {
+        put(new Op(Op.WRITE, file, contents));
+    }
+
+    @Override
+    public void append(String file, byte[] contents) {
+        put(new Op(Op.APPEND, file, contents));
+    }
+
+    /**
+     * Waits until what is written so far is written to the sink and
+     * flushed.
+     */
+    @Override
+    public void flush() {
+        Op op = new Op(Op.FLUSH, null, null);
+        put(op);
+        op.await();
+        checkError();
+    }
+
+    /**
+     * Waits for the writer and closes the sink, also after an error of
+     * the writer, which we throw then.
+     */
+    @Override
+    public void close() {
+        try {
+            if (writer.isAlive()) {
+                Op op = new Op(Op.CLOSE, null, null);
+                // The writer skips what is pending after an error, so
+                // it gets to the close
+                enqueue(op);
+                op.await();
+            }
+        } finally {
+            try {
+                sink.close();
+            } catch (RuntimeException e) {
+                if (error == null) {
+                    throw e;
+                }
+                error.addSuppressed(e);
+            }
+        }
+        checkError();
+    }
+
+    private void put(Op op) {
+        checkError();
+        enqueue(op);
+    }
+
+    private void enqueue(Op op) {
+        try {
+            queue.put(op);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void checkError() {
+        if (error != null) {
+            throw new RuntimeException("Failed to write outputs!", error);
+        }
+    }
+
+    private void drain() {
+        List<Op> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            for (Op op : batch) {
+                try {
+                    if (error == null) {
+                        apply(op);
+                    }
+                } catch (Throwable t) {
+                    error = t;
+                }
+                if (op.kind == Op.FLUSH || op.kind == Op.CLOSE) {
+                    op.done();
+                }
+                if (op.kind == Op.CLOSE) {
+                    return;
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private void apply(Op op) {
+        switch (op.kind) {
+        case Op.WRITE:
+            sink.write(op.file, op.contents);
+            break;
+        case Op.APPEND:
+            sink.append(op.file, op.contents);
+            break;
+        default:
+            // Flush and close only flush here, and the caller closes
+            // the sink
+            sink.flush();
+            return;
+        }
+        if (queue.isEmpty()) {
+            // The end of a batch
+            sink.flush();
+        }
+    }
+
+    private static class Op {
+
+        private static final int WRITE = 0;
+        private static final int APPEND = 1;
+        private static final int FLUSH = 2;
+        private static final int CLOSE = 3;
+
+        private final int kind;
+        private final String file;
+        private final byte[] contents;
+        private boolean done;
+
+        private Op(int kind, String file, byte[] contents) {
+            this.kind = kind;
+            this.file = file;
+            this.contents = contents;
+        }
+
+        private synchronized void done() {
+            done = true;
+            notifyAll();
+        }
+
+        private synchronized void await() {
+            try {
+                while (!done) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
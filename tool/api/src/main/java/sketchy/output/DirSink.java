@@ -0,0 +1,87 @@
+package sketchy.output;
+
+import sketchy.util.IOUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes every file on its own in a directory. Files we append to,
+ * e.g., {@link sketchy.Config#holeValuesFile}, are kept open and
+ * buffered until they are flushed, instead of opened again for every
+ * program.
+ */
+public class DirSink implements OutputSink {
+
+    private final Path dir;
+    private final Map<String, OutputStream> appenders = new HashMap<>();
+
+    public DirSink(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Writes the given file, where a file in a subdirectory, e.g., a
+     * class file of a package, has its directories created.
+     */
+    @Override
+    public synchronized void write(String file, byte[] contents) {
+        closeAppender(file);
+        Path path = dir.resolve(file);
+        if (file.indexOf('/') >= 0) {
+            IOUtil.createDir(path.getParent().toString());
+        }
+        IOUtil.writeToFile(path, contents, false);
+    }
+
+    @Override
+    public synchronized void append(String file, byte[] contents) {
+        try {
+            OutputStream out = appenders.get(file);
+            if (out == null) {
+                out = new BufferedOutputStream(Files.newOutputStream(dir.resolve(file),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+                appenders.put(file, out);
+            }
+            out.write(contents);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            for (OutputStream out : appenders.values()) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (String file : appenders.keySet().toArray(new String[0])) {
+            closeAppender(file);
+        }
+    }
+
+    private void closeAppender(String file) {
+        OutputStream out = appenders.remove(file);
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
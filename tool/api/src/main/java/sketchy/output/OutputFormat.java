@@ -0,0 +1,18 @@
+package sketchy.output;
+
+/**
+ * Defines how the files of a run are laid out.
+ */
+public enum OutputFormat {
+
+    /**
+     * Every file on its own in the output directory, see
+     * {@link DirSink}.
+     */
+    DIR,
+
+    /**
+     * All files in one pack file, see {@link PackSink}.
+     */
+    PACK
+}
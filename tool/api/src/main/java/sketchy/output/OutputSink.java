@@ -0,0 +1,37 @@
+package sketchy.output;
+
+import java.io.Closeable;
+
+/**
+ * Where we write generated programs and the other files of a run,
+ * each by its name in the output directory.
+ */
+public interface OutputSink extends Closeable {
+
+    /**
+     * Writes the given file, replacing its earlier contents if any.
+     */
+    void write(String file, byte[] contents);
+
+    /**
+     * Appends to the given file, which is created if it does not
+     * exist.
+     */
+    void append(String file, byte[] contents);
+
+    /**
+     * Makes what is written so far visible to readers.
+     */
+    void flush();
+
+    @Override
+    void close();
+
+    default void write(String file, String contents) {
+        write(file, contents.getBytes());
+    }
+
+    default void append(String file, String contents) {
+        append(file, contents.getBytes());
+    }
+}
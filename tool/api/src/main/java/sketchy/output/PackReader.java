@@ -0,0 +1,182 @@
+package sketchy.output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads files back from a pack written by {@link PackSink}, mapping
+ * the index and the contents of every file read into memory.
+ */
+public class PackReader implements Closeable {
+
+    private final FileChannel channel;
+    private final Map<String, List<long[]>> index = new LinkedHashMap<>();
+
+    public PackReader(Path path) {
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            ByteBuffer header = read(0, PackSink.HEADER_SIZE);
+            if (header == null || header.getInt() != PackSink.MAGIC || header.get() != PackSink.VERSION) {
+                throw new RuntimeException("Not a pack file: " + path + "!");
+            }
+            if (!readIndex()) {
+                scan();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the names of the files in the order they are first
+     * written.
+     */
+    public Set<String> getFiles() {
+        return index.keySet();
+    }
+
+    /**
+     * Returns the contents of the given file, or null if there is no
+     * such file.
+     */
+    public byte[] read(String file) {
+        List<long[]> chunks = index.get(file);
+        if (chunks == null) {
+            return null;
+        }
+        try {
+            if (chunks.size() == 1) {
+                return toBytes(map(chunks.get(0)[0], chunks.get(0)[1]));
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (long[] chunk : chunks) {
+                out.write(toBytes(map(chunk[0], chunk[1])));
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads the index at the end of a closed pack, and returns false
+     * if there is none.
+     */
+    private boolean readIndex() throws IOException {
+        long size = channel.size();
+        ByteBuffer trailer = read(size - PackSink.TRAILER_SIZE, PackSink.TRAILER_SIZE);
+        if (trailer == null) {
+            return false;
+        }
+        long indexOffset = trailer.getLong();
+        if (trailer.getInt() != PackSink.MAGIC
+                || indexOffset < PackSink.HEADER_SIZE || indexOffset >= size - PackSink.TRAILER_SIZE) {
+            return false;
+        }
+        ByteBuffer buf = map(indexOffset, size - PackSink.TRAILER_SIZE - indexOffset);
+        if (buf.get() != PackSink.INDEX) {
+            return false;
+        }
+        int nFiles = buf.getInt();
+        for (int i = 0; i < nFiles; i++) {
+            String file = readName(buf);
+            int nChunks = buf.getInt();
+            List<long[]> chunks = new ArrayList<>(nChunks);
+            for (int j = 0; j < nChunks; j++) {
+                chunks.add(new long[] {buf.getLong(), buf.getInt()});
+            }
+            index.put(file, chunks);
+        }
+        return true;
+    }
+
+    /**
+     * Builds the index from the entries up to the last complete one.
+     */
+    private void scan() throws IOException {
+        long size = channel.size();
+        long pos = PackSink.HEADER_SIZE;
+        while (true) {
+            ByteBuffer kindAndName = read(pos, 1 + Short.BYTES);
+            if (kindAndName == null) {
+                return;
+            }
+            byte kind = kindAndName.get();
+            if (kind != PackSink.WRITE && kind != PackSink.APPEND) {
+                return;
+            }
+            int nameLength = Short.toUnsignedInt(kindAndName.getShort());
+            ByteBuffer nameAndLength = read(pos + 1 + Short.BYTES, nameLength + Integer.BYTES);
+            if (nameAndLength == null) {
+                return;
+            }
+            byte[] name = new byte[nameLength];
+            nameAndLength.get(name);
+            long length = nameAndLength.getInt();
+            long offset = pos + 1 + Short.BYTES + nameLength + Integer.BYTES;
+            if (offset + length > size) {
+                return;
+            }
+            List<long[]> chunks = index.computeIfAbsent(
+                    new String(name, StandardCharsets.UTF_8), f -> new ArrayList<>());
+            if (kind == PackSink.WRITE) {
+                chunks.clear();
+            }
+            chunks.add(new long[] {offset, length});
+            pos = offset + length;
+        }
+    }
+
+    /**
+     * Returns the given bytes, or null if the pack ends before.
+     */
+    private ByteBuffer read(long pos, int length) throws IOException {
+        if (pos < 0 || pos + length > channel.size()) {
+            return null;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, pos + buf.position()) < 0) {
+                return null;
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private ByteBuffer map(long pos, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, pos, length);
+    }
+
+    private static String readName(ByteBuffer buf) {
+        byte[] name = new byte[Short.toUnsignedInt(buf.getShort())];
+        buf.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] toBytes(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.remaining()];
+        buf.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
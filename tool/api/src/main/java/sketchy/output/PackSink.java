@@ -0,0 +1,136 @@
+package sketchy.output;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes all files of a run to one append-only pack file, instead of
+ * a file per program, which {@link PackReader} reads back and
+ * {@link Unpack} extracts.
+ * <p>
+ * A pack starts with {@link #MAGIC} and {@link #VERSION}, followed
+ * by an entry per write or append, i.e., its kind, the file name
+ * (unsigned short length and UTF-8 bytes), the length of the
+ * contents (int) and the contents. When closed, we add the index,
+ * i.e., {@link #INDEX}, the number of files (int), and for every
+ * file its name and the chunks of its contents, each an offset (long)
+ * and a length (int), and at last the offset of the index (long) and
+ * {@link #MAGIC} again. A pack that is not closed, e.g., when the run
+ * crashes, is read entry by entry up to its last complete one.
+ */
+public class PackSink implements OutputSink {
+
+    public static final int MAGIC = 0x534b504b; // "SKPK"
+    public static final int VERSION = 1;
+
+    static final byte WRITE = 1;
+    static final byte APPEND = 2;
+    static final byte INDEX = 3;
+    static final int HEADER_SIZE = Integer.BYTES + 1;
+    static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+
+    private final DataOutputStream out;
+    /**
+     * Maps files in the order they are first written to the offsets
+     * and lengths of the chunks of their contents.
+     */
+    private final Map<String, List<long[]>> index = new LinkedHashMap<>();
+    /**
+     * Bytes written so far, which {@link DataOutputStream#size} only
+     * counts up to 2 GB.
+     */
+    private long position;
+    private boolean closed;
+
+    public PackSink(Path path) {
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            position = HEADER_SIZE;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public synchronized void write(String file, byte[] contents) {
+        List<long[]> chunks = index.computeIfAbsent(file, f -> new ArrayList<>());
+        chunks.clear();
+        chunks.add(writeEntry(WRITE, file, contents));
+    }
+
+    @Override
+    public synchronized void append(String file, byte[] contents) {
+        index.computeIfAbsent(file, f -> new ArrayList<>())
+                .add(writeEntry(APPEND, file, contents));
+    }
+
+    /**
+     * Returns the offset and length of the contents.
+     */
+    private long[] writeEntry(byte kind, String file, byte[] contents) {
+        try {
+            out.writeByte(kind);
+            writeName(file);
+            out.writeInt(contents.length);
+            position += 1 + Integer.BYTES;
+            long offset = position;
+            out.write(contents);
+            position += contents.length;
+            return new long[] {offset, contents.length};
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeName(String file) throws IOException {
+        byte[] name = file.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(name.length);
+        out.write(name);
+        position += Short.BYTES + name.length;
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            long indexOffset = position;
+            out.writeByte(INDEX);
+            out.writeInt(index.size());
+            for (Map.Entry<String, List<long[]>> e : index.entrySet()) {
+                writeName(e.getKey());
+                out.writeInt(e.getValue().size());
+                for (long[] chunk : e.getValue()) {
+                    out.writeLong(chunk[0]);
+                    out.writeInt((int) chunk[1]);
+                }
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(MAGIC);
+            out.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package sketchy.output;
+
+import sketchy.util.IOUtil;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extracts files from a pack written by {@link PackSink}.
+ * <p>
+ * Usage: {@code Unpack <pack> [--list] [--outputDir=<dir>] [file...]},
+ * which lists the files with their sizes, prints the given files, or
+ * writes the given files, or all of them, to the output directory if
+ * it is given or no file is.
+ */
+public class Unpack {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            throw new RuntimeException("Usage: Unpack <pack> [--list] [--outputDir=<dir>] [file...]!");
+        }
+        boolean list = false;
+        String outputDir = null;
+        List<String> files = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--list")) {
+                list = true;
+            } else if (args[i].startsWith("--outputDir=")) {
+                outputDir = args[i].substring("--outputDir=".length());
+            } else {
+                files.add(args[i]);
+            }
+        }
+        try (PackReader reader = new PackReader(Paths.get(args[0]))) {
+            if (files.isEmpty()) {
+                files.addAll(reader.getFiles());
+            }
+            if (list) {
+                for (String file : files) {
+                    System.out.println(file + " " + read(reader, file).length);
+                }
+                return;
+            }
+            if (outputDir == null && files.size() < reader.getFiles().size()) {
+                for (String file : files) {
+                    System.out.write(read(reader, file));
+                }
+                System.out.flush();
+                return;
+            }
+            outputDir = outputDir == null ? "." : outputDir;
+            IOUtil.createDir(outputDir);
+            for (String file : files) {
+                // A class file of a package goes in its directories
+                Path path = Paths.get(outputDir, file);
+                IOUtil.createDir(path.getParent().toString());
+                IOUtil.writeToFile(path, read(reader, file), false);
+            }
+        }
+    }
+
+    private static byte[] read(PackReader reader, String file) {
+        byte[] contents = reader.read(file);
+        if (contents == null) {
+            throw new RuntimeException("No such file in the pack: " + file + "!");
+        }
+        return contents;
+    }
+}
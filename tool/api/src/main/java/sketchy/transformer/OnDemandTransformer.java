@@ -20,6 +20,11 @@ public class OnDemandTransformer extends Transformer {
      */
     private final boolean hotFilling;
 
+    /**
+     * Flag if cu is transformed since it was last reset.
+     */
+    private boolean transformed;
+
     /**
      * Constructor.
      */
@@ -36,6 +41,7 @@ public class OnDemandTransformer extends Transformer {
      */
     @Override
     public void transform() {
+        transformed = true;
         if (deadCodeRemoval) {
             // Remove dead code resulting from always true or false
             // condition holes.
@@ -49,9 +55,13 @@ public class OnDemandTransformer extends Transformer {
 
     /**
      * Resets cu to a clone of origCu. This should be invoked before
-     * a new run of the sketch.
+     * a new run of the sketch. A run without hot filling leaves cu
+     * the same as origCu, so we keep it.
      */
     public void resetCu() {
-        cu = origCu.clone();
+        if (cu == null || transformed) {
+            cu = origCu.clone();
+            transformed = false;
+        }
     }
 }
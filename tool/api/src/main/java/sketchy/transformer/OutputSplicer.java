@@ -0,0 +1,232 @@
+package sketchy.transformer;
+
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.ExpressionStmt;
+import com.github.javaparser.ast.stmt.SwitchEntry;
+import com.github.javaparser.ast.visitor.ModifierVisitor;
+import com.github.javaparser.ast.visitor.Visitable;
+import com.github.javaparser.printer.DefaultPrettyPrinter;
+import com.github.javaparser.printer.configuration.DefaultConfigurationOption;
+import com.github.javaparser.printer.configuration.DefaultPrinterConfiguration;
+import com.github.javaparser.printer.configuration.DefaultPrinterConfiguration.ConfigOption;
+import com.github.javaparser.utils.LineSeparator;
+import sketchy.transformer.visitor.RemoveVisitor;
+import sketchy.transformer.visitor.RenameVisitor;
+import sketchy.util.JPUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Outputs programs of a sketch by splicing the printed fills of the
+ * holes and the class name into the printed sketch, which we print
+ * only once, instead of filling and printing an AST per program.
+ * <p>
+ * The sketch is printed with placeholders for the class name and the
+ * holes, and split around them. A fill is printed on its own, with
+ * the indentation of its line added to every line but the first, as
+ * the printer does in place. Printed fills are cached, as the same
+ * fills come up in many programs.
+ */
+class OutputSplicer {
+
+    private static final String PLACEHOLDER_PREFIX = "__SKETCHY_";
+    private static final String CLZ_PLACEHOLDER = PLACEHOLDER_PREFIX + "CLZ__";
+    private static final Pattern PLACEHOLDER = Pattern.compile(
+            "__SKETCHY_(?:CLZ__|EXPR_(\\d+)__|STMT_(\\d+)__;)");
+    private static final int MAX_CACHED_FILLS = 1 << 14;
+
+    /**
+     * Text between the placeholders, one more than the placeholders.
+     */
+    private final List<String> texts = new ArrayList<>();
+    /**
+     * The placeholders in order, each being a hole identifier, or 0
+     * for the class name.
+     */
+    private final List<Integer> holeIds = new ArrayList<>();
+    /**
+     * Indentation of the line of each placeholder.
+     */
+    private final List<String> indents = new ArrayList<>();
+    /**
+     * Maps hole identifiers to the printed holes, which are output
+     * for holes not filled.
+     */
+    private final Map<Integer, String> printedHoles = new HashMap<>();
+    private final Set<Integer> stmtHoleIds = new HashSet<>();
+    private final Map<String, String> printedExprs = newCache();
+    private final Map<String, String> printedStmts = newCache();
+    private final DefaultPrettyPrinter printer;
+    private final String eol;
+    private int textLength;
+
+    private OutputSplicer(String eol) {
+        this.eol = eol;
+        this.printer = new DefaultPrettyPrinter(new DefaultPrinterConfiguration()
+                .removeOption(new DefaultConfigurationOption(ConfigOption.PRINT_COMMENTS))
+                .addOption(new DefaultConfigurationOption(ConfigOption.END_OF_LINE_CHARACTER, eol)));
+    }
+
+    /**
+     * Returns a splicer of the given CU, which is transformed except
+     * for renaming the class and filling the holes, or null if its
+     * printed programs could differ from those printed from the AST,
+     * i.e., when a statement hole is not in a block, where the
+     * printer lays out a filled statement by its kind, or the sketch
+     * happens to use our placeholders.
+     *
+     * @param printer prints the CU as {@link Transformer#getSrcCode}
+     */
+    static OutputSplicer of(CompilationUnit initCu, String inClzName,
+                            Function<CompilationUnit, String> printer) {
+        CompilationUnit cu = initCu.clone();
+        if (printer.apply(cu).contains(PLACEHOLDER_PREFIX)) {
+            return null;
+        }
+        OutputSplicer splicer = new OutputSplicer(
+                cu.getLineEndingStyleOrDefault(LineSeparator.SYSTEM).asRawString());
+        ClassOrInterfaceDeclaration clz = cu.getClassByName(inClzName).get();
+        clz.setName(CLZ_PLACEHOLDER);
+        clz.accept(new RenameVisitor(inClzName, CLZ_PLACEHOLDER), null);
+        cu.accept(new RemoveVisitor(), null);
+        boolean[] spliceable = {true};
+        cu.accept(new ModifierVisitor<Void>() {
+            @Override
+            public Visitable visit(ExpressionStmt stmt, Void arg) {
+                if (!JPUtil.isHole(stmt)) {
+                    return super.visit(stmt, arg);
+                }
+                Node parent = stmt.getParentNode().orElse(null);
+                if (!(parent instanceof BlockStmt) && !(parent instanceof SwitchEntry)) {
+                    spliceable[0] = false;
+                }
+                int holeId = JPUtil.getHoleId(stmt);
+                splicer.printedHoles.put(holeId, splicer.printer.print(stmt));
+                splicer.stmtHoleIds.add(holeId);
+                return new ExpressionStmt(new NameExpr(PLACEHOLDER_PREFIX + "STMT_" + holeId + "__"));
+            }
+
+            @Override
+            public Visitable visit(MethodCallExpr expr, Void arg) {
+                if (!JPUtil.isHole(expr)) {
+                    return super.visit(expr, arg);
+                }
+                int holeId = JPUtil.getHoleId(expr);
+                splicer.printedHoles.put(holeId, splicer.printer.print(expr));
+                return new NameExpr(PLACEHOLDER_PREFIX + "EXPR_" + holeId + "__");
+            }
+        }, null);
+        if (!spliceable[0]) {
+            return null;
+        }
+        splicer.split(printer.apply(cu));
+        return splicer;
+    }
+
+    private void split(String src) {
+        Matcher m = PLACEHOLDER.matcher(src);
+        int end = 0;
+        while (m.find()) {
+            texts.add(src.substring(end, m.start()));
+            textLength += m.start() - end;
+            String id = m.group(1) != null ? m.group(1) : m.group(2);
+            holeIds.add(id == null ? 0 : Integer.parseInt(id));
+            int lineStart = src.lastIndexOf('\n', m.start()) + 1;
+            int indentEnd = lineStart;
+            while (indentEnd < m.start() && Character.isWhitespace(src.charAt(indentEnd))) {
+                indentEnd++;
+            }
+            indents.add(src.substring(lineStart, indentEnd));
+            end = m.end();
+        }
+        texts.add(src.substring(end));
+        textLength += src.length() - end;
+    }
+
+    /**
+     * Returns the program of the given class name and filled holes.
+     */
+    String splice(String outClzName, Map<Integer, String> filledHoles) {
+        StringBuilder sb = new StringBuilder(2 * textLength);
+        for (int i = 0; i < holeIds.size(); i++) {
+            sb.append(texts.get(i));
+            int holeId = holeIds.get(i);
+            if (holeId == 0) {
+                sb.append(outClzName);
+                continue;
+            }
+            String fill = filledHoles.get(holeId);
+            String printed = fill == null
+                    // The class is renamed in holes not filled
+                    ? printedHoles.get(holeId).replace(CLZ_PLACEHOLDER, outClzName)
+                    : print(fill, stmtHoleIds.contains(holeId));
+            appendIndented(sb, printed, indents.get(i));
+        }
+        sb.append(texts.get(texts.size() - 1));
+        return sb.toString();
+    }
+
+    private String print(String fill, boolean isStmt) {
+        Map<String, String> cache = isStmt ? printedStmts : printedExprs;
+        String printed = cache.get(fill);
+        if (printed == null) {
+            if (isStmt) {
+                printed = printer.print(StaticJavaParser.parseStatement(fill));
+            } else {
+                try {
+                    printed = printer.print(StaticJavaParser.parseExpression(fill));
+                } catch (ParseProblemException e) {
+                    throw new RuntimeException("Expect an expression for this hole but encountered " + fill);
+                }
+            }
+            cache.put(fill, printed);
+        }
+        return printed;
+    }
+
+    /**
+     * Appends the printed node, indenting every non-empty line after
+     * the first, which the printer does not indent either.
+     */
+    private void appendIndented(StringBuilder sb, String printed, String indent) {
+        if (indent.isEmpty() || !printed.contains(eol)) {
+            sb.append(printed);
+            return;
+        }
+        int start = 0;
+        int next;
+        while ((next = printed.indexOf(eol, start)) >= 0) {
+            sb.append(printed, start, next).append(eol);
+            start = next + eol.length();
+            if (start < printed.length() && !printed.startsWith(eol, start)) {
+                sb.append(indent);
+            }
+        }
+        sb.append(printed, start, printed.length());
+    }
+
+    private static Map<String, String> newCache() {
+        return new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > MAX_CACHED_FILLS;
+            }
+        };
+    }
+}
@@ -16,6 +16,11 @@ import com.github.javaparser.ast.stmt.CatchClause;
 import com.github.javaparser.ast.stmt.ExpressionStmt;
 import com.github.javaparser.ast.stmt.Statement;
 import com.github.javaparser.ast.stmt.TryStmt;
+import com.github.javaparser.printer.DefaultPrettyPrinter;
+import com.github.javaparser.printer.configuration.DefaultConfigurationOption;
+import com.github.javaparser.printer.configuration.DefaultPrinterConfiguration;
+import com.github.javaparser.printer.configuration.DefaultPrinterConfiguration.ConfigOption;
+import com.github.javaparser.printer.configuration.PrinterConfiguration;
 import sketchy.Config;
 import sketchy.Constants;
 import sketchy.data.Data;
@@ -26,6 +31,7 @@ import sketchy.util.JPUtil;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Transform sketches in output.
@@ -45,12 +51,23 @@ public class OutputTransformer extends Transformer {
      * Unchanged after initialization.
      */
     private CompilationUnit initCu; // CU after initial transformation
+    private OutputSplicer splicer;
+    private boolean splicerInitialized;
 
     /*
      * Changed across each transform.
      */
     private ClassOrInterfaceDeclaration clz;
     private String outClzName;
+    private Map<Integer, String> filledHoles;
+
+    /*
+     * Printer configuration of a copy. JavaParser prints with one
+     * configuration shared by all the sketches once we look for
+     * main(), which is changed on every print, so copies print with
+     * their own configuration, which has the same options.
+     */
+    private PrinterConfiguration printerConfig;
 
     public OutputTransformer(
             CompilationUnit origCu,
@@ -88,7 +105,7 @@ public class OutputTransformer extends Transformer {
             // A constant to store the number of holes filled
             clz.addFieldWithInitializer("int",
                     Constants.FILLED_HOLES,
-                    new IntegerLiteralExpr(String.valueOf(Data.getNumFilledHoles())),
+                    new IntegerLiteralExpr(String.valueOf(getFilledHoles().size())),
                     Modifier.Keyword.PRIVATE,
                     Modifier.Keyword.STATIC,
                     Modifier.Keyword.FINAL);
@@ -146,7 +163,66 @@ public class OutputTransformer extends Transformer {
      */
     private void transformApi() {
         cu.accept(new RemoveVisitor(), null);
-        cu.accept(new HoleFiller(Config.trackHoles), null);
+        cu.accept(new HoleFiller(Config.trackHoles, getFilledHoles()), null);
+    }
+
+    private Map<Integer, String> getFilledHoles() {
+        return filledHoles == null ? Data.getStrCache() : filledHoles;
+    }
+
+    /**
+     * Set the filled holes, which are those of the current run in
+     * {@link Data} if null.
+     */
+    public OutputTransformer setFilledHoles(Map<Integer, String> filledHoles) {
+        this.filledHoles = filledHoles;
+        return this;
+    }
+
+    /**
+     * Returns a new transformer of the same sketch, so the two can
+     * transform at the same time.
+     */
+    public OutputTransformer copy() {
+        OutputTransformer copy = new OutputTransformer(origCu.clone(), inClzName,
+                entryMethodName, entryMethodReturnsVoid, argMethodNames);
+        copy.printerConfig = new DefaultPrinterConfiguration()
+                .removeOption(new DefaultConfigurationOption(ConfigOption.PRINT_COMMENTS));
+        return copy;
+    }
+
+    @Override
+    public String getSrcCode() {
+        return print(cu);
+    }
+
+    private String print(CompilationUnit cu) {
+        if (printerConfig != null) {
+            cu.printer(new DefaultPrettyPrinter(printerConfig));
+        }
+        return cu.toString();
+    }
+
+    /**
+     * Splices the program from the printed sketch if we can, which
+     * gives the same program as transforming and printing the AST.
+     */
+    @Override
+    public String transformAndGetSrcCode() {
+        if (!Config.optSpliceOutput || Config.trackHoles) {
+            return super.transformAndGetSrcCode();
+        }
+        if (initCu == null) {
+            initTransform();
+        }
+        if (!splicerInitialized) {
+            splicer = OutputSplicer.of(initCu, inClzName, this::print);
+            splicerInitialized = true;
+        }
+        if (splicer == null) {
+            return super.transformAndGetSrcCode();
+        }
+        return splicer.splice(outClzName, getFilledHoles());
     }
 
     /**
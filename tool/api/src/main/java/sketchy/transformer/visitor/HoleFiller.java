@@ -12,6 +12,8 @@ import sketchy.Constants;
 import sketchy.data.Data;
 import sketchy.util.JPUtil;
 
+import java.util.Map;
+
 /**
  * Visitor to fill holes represented by sketchy APIs with plain Java
  * expressions.
@@ -19,13 +21,23 @@ import sketchy.util.JPUtil;
 public class HoleFiller extends ModifierVisitor<Void> {
 
     private final boolean trackHoles;
+    /**
+     * Maps hole identifiers to string representations of the filled
+     * holes.
+     */
+    private final Map<Integer, String> filledHoles;
 
     public HoleFiller() {
         this(false);
     }
 
     public HoleFiller(boolean trackHoles) {
+        this(trackHoles, Data.getStrCache());
+    }
+
+    public HoleFiller(boolean trackHoles, Map<Integer, String> filledHoles) {
         this.trackHoles = trackHoles;
+        this.filledHoles = filledHoles;
     }
 
     /**
@@ -56,7 +68,7 @@ public class HoleFiller extends ModifierVisitor<Void> {
         // Suppose this hole looks like "<exp>.eval(<int>>);"
 
         int holeId = JPUtil.getHoleId(hole);
-        if (!Data.isTheHoleFilled(holeId)) {
+        if (!filledHoles.containsKey(holeId)) {
             // TODO: Maybe one day we change our mind and decide to
             //  remove those holes unreachable since they might have
             //  impact on JIT even though they will never be executed.
@@ -64,7 +76,7 @@ public class HoleFiller extends ModifierVisitor<Void> {
             //  package so we can pass type check.
             return hole;
         }
-        String stmt = Data.getJavaStrOfHole(holeId);
+        String stmt = filledHoles.get(holeId);
         // TODO: I don't think the wrapping works for statements.
         return StaticJavaParser.parseStatement(stmt);
     }
@@ -73,7 +85,7 @@ public class HoleFiller extends ModifierVisitor<Void> {
         // Suppose this hole looks like "<exp>.eval(<int>>)"
 
         int holeId = JPUtil.getHoleId(hole);
-        if (!Data.isTheHoleFilled(holeId)) {
+        if (!filledHoles.containsKey(holeId)) {
             // TODO: Maybe one day we change our mind and decide to
             //  remove those holes unreachable since they might have
             //  impact on JIT even though they will never be executed.
@@ -81,7 +93,7 @@ public class HoleFiller extends ModifierVisitor<Void> {
             //  package so we can pass type check.
             return hole;
         }
-        String expr = Data.getJavaStrOfHole(holeId);
+        String expr = filledHoles.get(holeId);
         try {
             Expression filledHole = StaticJavaParser.parseExpression(expr);
             return trackHoles ? wrapHoleFilling(filledHole, holeId) : filledHole;
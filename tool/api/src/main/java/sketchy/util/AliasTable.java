@@ -0,0 +1,72 @@
+package sketchy.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+/**
+ * Alias table (Vose's method) to sample indices of given weights in
+ * constant time, after linear time to build the table.
+ */
+public class AliasTable {
+
+    /**
+     * Chance to keep the index rather than take its alias.
+     */
+    private final double[] prob;
+    private final int[] alias;
+
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        double sum = 0;
+        for (double w : weights) {
+            if (!(w >= 0) || Double.isInfinite(w)) {
+                throw new RuntimeException("Weights must be non-negative and finite!");
+            }
+            sum += w;
+        }
+        if (!(sum > 0)) {
+            throw new RuntimeException("Weights must have a positive sum!");
+        }
+        prob = new double[n];
+        alias = new int[n];
+
+        double[] scaled = new double[n];
+        Deque<Integer> small = new ArrayDeque<>();
+        Deque<Integer> large = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / sum;
+            (scaled[i] < 1 ? small : large).push(i);
+        }
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int s = small.pop();
+            int l = large.pop();
+            prob[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = scaled[l] + scaled[s] - 1;
+            (scaled[l] < 1 ? small : large).push(l);
+        }
+        // Whatever is left is 1 up to rounding errors.
+        while (!large.isEmpty()) {
+            prob[large.pop()] = 1;
+        }
+        while (!small.isEmpty()) {
+            prob[small.pop()] = 1;
+        }
+    }
+
+    /**
+     * Returns a random index, where each index has a chance
+     * proportional to its weight.
+     */
+    public int sample(Random random) {
+        int i = random.nextInt(prob.length);
+        // Not nextDouble() which Rand overrides to give any double.
+        double u = (random.nextLong() >>> 11) * 0x1.0p-53;
+        return u < prob[i] ? i : alias[i];
+    }
+
+    public int size() {
+        return prob.length;
+    }
+}
@@ -0,0 +1,50 @@
+package sketchy.util;
+
+/**
+ * Counter-based random generator (SplitMix64) whose stream restarts
+ * at any given key, e.g., an output and a hole, so the values drawn
+ * for a key depend on nothing drawn before.
+ */
+public class KeyedRand extends Rand {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long seed;
+    private long state;
+
+    public KeyedRand(long seed) {
+        super(seed);
+        this.seed = seed;
+        key();
+    }
+
+    /**
+     * Restarts the stream at the given key.
+     */
+    public void key(long... key) {
+        long s = seed;
+        for (long k : key) {
+            s = mix64(mix64(s + GOLDEN_GAMMA) ^ k);
+        }
+        state = s;
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (Long.SIZE - bits));
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,5 +1,8 @@
 package sketchy.util;
 
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Random;
 
 public class Rand extends Random {
@@ -33,6 +36,45 @@ public class Rand extends Random {
         return nextInt() & Integer.MAX_VALUE; // zero out the sign bit
     }
 
+    /**
+     * Returns a random non-negative int value of geometric
+     * distribution with the given mean, i.e., the number of failures
+     * before the first success of chance {@code 1 / (mean + 1)}, at
+     * most {@code Integer.MAX_VALUE}.
+     */
+    public int nextGeometric(double mean) {
+        if (!(mean > 0)) {
+            throw new IllegalArgumentException("mean must be positive!");
+        }
+        double u = 1.0 - super.nextDouble(); // in (0, 1]
+        double val = Math.floor(Math.log(u) / Math.log1p(-1.0 / (mean + 1)));
+        return (int) Math.min(val, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns {@code n} random int values, generated in bulk, the same
+     * as {@code n} calls of {@link #nextInt()}.
+     */
+    public int[] nextInts(int n) {
+        // nextBytes writes every int low byte first
+        byte[] bytes = new byte[n * Integer.BYTES];
+        nextBytes(bytes);
+        int[] vals = new int[n];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(vals);
+        return vals;
+    }
+
+    /**
+     * Returns {@code n} random int values between {@code low}
+     * (inclusive) and {@code high} (exclusive), generated in bulk.
+     */
+    public int[] nextInts(int n, int low, int high) {
+        if (low >= high) {
+            throw new IllegalArgumentException("low must be less than high!");
+        }
+        return ints(n, low, high).toArray();
+    }
+
     /**
      * Returns a random long value between {@code low} (inclusive) and
      * {@code high} (exclusive).
@@ -72,6 +114,44 @@ public class Rand extends Random {
         return val;
     }
 
+    /**
+     * Returns a random BigInteger value between {@code 0} (inclusive)
+     * and {@code n} (exclusive).
+     */
+    public BigInteger nextBigInteger(BigInteger n) {
+        if (n.signum() <= 0) {
+            throw new IllegalArgumentException("n must be positive!");
+        }
+        if (n.bitLength() < Long.SIZE) {
+            return BigInteger.valueOf(nextLong(n.longValue()));
+        }
+        BigInteger val;
+        do {
+            val = new BigInteger(n.bitLength(), this);
+        } while (val.compareTo(n) >= 0);
+        return val;
+    }
+
+    /**
+     * Returns a random index into the given cumulative weights, where
+     * index {@code i} has a chance proportional to its weight, i.e.,
+     * {@code weights[i] - weights[i - 1]}.
+     */
+    public int nextWeightedIndex(BigInteger[] cumWeights) {
+        BigInteger r = nextBigInteger(cumWeights[cumWeights.length - 1]);
+        int low = 0;
+        int high = cumWeights.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumWeights[mid].compareTo(r) > 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
     /**
      * Returns a random double value between {@code low} (inclusive)
      * and {@code high} (exclusive).
@@ -0,0 +1,86 @@
+package sketchy.ast.exp;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import sketchy.Config;
+import sketchy.compiler.InMemoryCompiler;
+import sketchy.driver.Driver;
+import sketchy.util.Rand;
+
+public class IntArrValTest {
+
+    @Before
+    public void setUp() {
+        Driver.rand = new Rand(42);
+    }
+
+    @Test
+    public void testLongArrOfZeroFreeElems() throws Exception {
+        IntArrVal arr = new IntArrVal(Config.maxArrLen, Config.maxArrLen + 1, 1, 10);
+        arr.stepRand();
+        Assert.assertEquals(Config.maxArrLen, arr.getVal().length);
+        for (int elem : arr.getVal()) {
+            Assert.assertTrue(1 <= elem && elem < 10);
+        }
+        assertCompilesToVal(arr);
+    }
+
+    @Test
+    public void testLongArrOfBoundedLen() throws Exception {
+        IntArrVal arr = new IntArrVal(1000, 2000);
+        arr.stepRand();
+        // Elements past the literal are random as well
+        int nZeros = 0;
+        for (int i = Config.maxArrLitLen; i < arr.getVal().length; i++) {
+            nZeros += arr.getVal()[i] == 0 ? 1 : 0;
+        }
+        Assert.assertTrue(nZeros < 10);
+        assertCompilesToVal(arr);
+    }
+
+    @Test
+    public void testLongArrOfUnboundedLen() throws Exception {
+        IntArrVal arr = new IntArrVal();
+        do {
+            arr.stepRand();
+        } while (arr.getVal().length <= Config.maxArrLitLen);
+        for (int i = Config.maxArrLitLen; i < arr.getVal().length; i++) {
+            Assert.assertEquals(0, arr.getVal()[i]);
+        }
+        assertCompilesToVal(arr);
+    }
+
+    @Test
+    public void testShortArrDrawsAsPerElem() {
+        Rand rand = new Rand(42);
+        int len = rand.nextInt(5, 6);
+        int[] expected = new int[len];
+        for (int i = 0; i < len; i++) {
+            expected[i] = rand.nextInt();
+        }
+        int[] bounded = new int[rand.nextInt(5, 6)];
+        for (int i = 0; i < len; i++) {
+            bounded[i] = rand.nextInt(-3, 3);
+        }
+
+        IntArrVal arr = new IntArrVal(5, 6);
+        arr.stepRand();
+        Assert.assertArrayEquals(expected, arr.getVal());
+        IntArrVal boundedArr = new IntArrVal(5, 6, -3, 3);
+        boundedArr.stepRand();
+        Assert.assertArrayEquals(bounded, boundedArr.getVal());
+    }
+
+    /**
+     * Checks the literal is short, compiles and evaluates to the value.
+     */
+    private static void assertCompilesToVal(IntArrVal arr) throws Exception {
+        String lit = arr.asStr();
+        Assert.assertTrue(lit.length() < 20 * Config.maxArrLitLen);
+        String code = "public class ArrLit { public static int[] get() { return " + lit + "; } }";
+        ClassLoader loader = new InMemoryCompiler().compileAndGetLoader("ArrLit", code, false);
+        Object val = loader.loadClass("ArrLit").getMethod("get").invoke(null);
+        Assert.assertArrayEquals(arr.getVal(), (int[]) val);
+    }
+}
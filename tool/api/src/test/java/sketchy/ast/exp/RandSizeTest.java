@@ -0,0 +1,29 @@
+package sketchy.ast.exp;
+
+import org.junit.Assert;
+import org.junit.Test;
+import sketchy.Config;
+
+import java.math.BigInteger;
+
+public class RandSizeTest {
+
+    @Test
+    public void testBoundedDouble() {
+        double low = 1.0;
+        double high = Math.nextUp(Math.nextUp(low));
+        Assert.assertEquals(BigInteger.valueOf(2), new DoubleVal(low, high).randSize());
+        Assert.assertEquals(BigInteger.valueOf(2), new DoubleVal(-Double.MIN_VALUE, Double.MIN_VALUE).randSize());
+    }
+
+    @Test
+    public void testCappedLits() {
+        BigInteger cap = BigInteger.ONE.shiftLeft(Config.maxLitSizeBits);
+        Assert.assertEquals(cap, new DoubleVal().randSize());
+        Assert.assertEquals(cap, new DoubleVal(0, 1).randSize());
+        Assert.assertEquals(cap, new IntVal().randSize());
+        Assert.assertEquals(cap, new IntArrVal().randSize());
+        Assert.assertEquals(cap, new IntArrVal(1000, 2000, 1, 10).randSize());
+        Assert.assertEquals(BigInteger.TEN, new IntVal(0, 10).randSize());
+    }
+}
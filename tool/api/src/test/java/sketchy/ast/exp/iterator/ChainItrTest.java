@@ -0,0 +1,89 @@
+package sketchy.ast.exp.iterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+import sketchy.ast.exp.Exp;
+import sketchy.ast.exp.IntArrVal;
+import sketchy.ast.exp.IntVal;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static sketchy.Sketchy.alt;
+import static sketchy.Sketchy.intArrVal;
+import static sketchy.Sketchy.intVal;
+
+public class ChainItrTest {
+
+    @Test
+    public void testOrder() {
+        IntVal a = intVal(0, 2);
+        IntVal b = intVal(5, 8);
+        ChainItr itr = new ChainItr(a.itr(), b.itr());
+        List<String> expected = Arrays.asList(
+                "0 5", "0 6", "0 7", "1 5", "1 6", "1 7");
+        Assert.assertEquals(expected, enumerate(itr, a, b));
+    }
+
+    @Test
+    public void testSizeAndSeek() {
+        IntVal a = intVal(0, 3);
+        IntArrVal arr = intArrVal(0, 3, -1, 1);
+        IntVal b = intVal(10, 12);
+        ChainItr itr = new ChainItr(a.itr(), new ChainItr(arr.itr(), b.itr()));
+        List<String> all = enumerate(itr, a, arr, b);
+        // 3 * (1 + 2 + 4) * 2
+        Assert.assertEquals(42, all.size());
+        Assert.assertEquals(BigInteger.valueOf(42), itr.size());
+        for (int i = all.size() - 1; i >= 0; i--) {
+            itr.seek(BigInteger.valueOf(i));
+            Assert.assertEquals(all.get(i), snapshot(a, arr, b));
+            Assert.assertEquals(BigInteger.valueOf(i), itr.index());
+        }
+        // Continue stepping after a seek.
+        itr.seek(BigInteger.valueOf(20));
+        itr.next();
+        Assert.assertEquals(all.get(21), snapshot(a, arr, b));
+    }
+
+    @Test
+    public void testAltSize() {
+        Exp<Integer> e = alt(intVal(0, 2), intVal(5, 8));
+        Itr itr = e.itr();
+        int n = 0;
+        while (itr.hasNext()) {
+            itr.next();
+            n++;
+        }
+        Assert.assertEquals(5, n);
+        Assert.assertEquals(BigInteger.valueOf(4), itr.index());
+        itr.seek(BigInteger.valueOf(1));
+        Assert.assertEquals(BigInteger.valueOf(1), itr.index());
+        Assert.assertEquals(BigInteger.valueOf(5), itr.size());
+    }
+
+    private static List<String> enumerate(Itr itr, Exp<?>... exps) {
+        List<String> res = new ArrayList<>();
+        itr.reset();
+        while (itr.hasNext()) {
+            itr.next();
+            res.add(snapshot(exps));
+        }
+        return res;
+    }
+
+    private static String snapshot(Exp<?>... exps) {
+        StringBuilder sb = new StringBuilder();
+        for (Exp<?> exp : exps) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(exp instanceof IntArrVal ?
+                    ((IntArrVal) exp).asStr() :
+                    ((IntVal) exp).asStr());
+        }
+        return sb.toString();
+    }
+}
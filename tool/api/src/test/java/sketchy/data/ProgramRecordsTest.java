@@ -0,0 +1,56 @@
+package sketchy.data;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ProgramRecordsTest {
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Path file = Files.createTempFile("programs", ".rec");
+        Map<Integer, String> p1 = new HashMap<>();
+        p1.put(3, "x + 1");
+        p1.put(1, "(s2 = 5)");
+        p1.put(200, "\u00e9");
+        Map<Integer, String> p2 = new HashMap<>();
+        p2.put(1, "x + 1");
+        p2.put(3, "x + 1");
+        try (ProgramRecords.Writer writer = new ProgramRecords.Writer(file, 42L)) {
+            writer.write(1, p1);
+            writer.write(300, p2);
+            writer.write(301, new HashMap<>());
+        }
+        try (ProgramRecords.Reader reader = new ProgramRecords.Reader(file)) {
+            Assert.assertEquals(42L, reader.getTemplateHash());
+            ProgramRecords.Record r = reader.next();
+            Assert.assertEquals(1, r.output);
+            Assert.assertEquals(p1, r.filledHoles);
+            r = reader.next();
+            Assert.assertEquals(300, r.output);
+            Assert.assertEquals(p2, r.filledHoles);
+            r = reader.next();
+            Assert.assertEquals(301, r.output);
+            Assert.assertTrue(r.filledHoles.isEmpty());
+            Assert.assertNull(reader.next());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testNotRecords() throws IOException {
+        Path file = Files.createTempFile("programs", ".rec");
+        Files.write(file, "class,choices\n".getBytes());
+        try {
+            new ProgramRecords.Reader(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package sketchy.guided;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class JitLogParserTest {
+
+    @Test
+    public void testParse() {
+        List<String> log = Arrays.asList(
+                "<make_not_entrant thread='1' compile_id='7' compiler='c2' level='4'/>",
+                "<make_not_entrant thread='1' compile_id='3' compiler='c1' level='3'/>",
+                "<task compile_id='3' method='java.lang.String hashCode ()I' level='3'>",
+                "<uncommon_trap bci='5' reason='null_check' action='maybe_recompile'/>",
+                "</task>",
+                "<task compile_id='7' method='p.TGen1 m ()I' level='4' compile_kind='osr'>",
+                "<phase name='idealLoop' nodes='100' stamp='0.1'>",
+                "<loop idx='42' main_loop='1' >",
+                "<uncommon_trap bci='13' reason='range_check' action='make_not_entrant'/>",
+                "<eliminate_allocation type='123'>",
+                "</task>");
+        Set<String> expected = new TreeSet<>(Arrays.asList(
+                "make_not_entrant",
+                "task:level=4",
+                "task:osr",
+                "phase:idealLoop",
+                "loop:main_loop",
+                "uncommon_trap:range_check",
+                "eliminate_allocation"));
+        Assert.assertEquals(expected, new JitLogParser("p.TGen1").parse(log));
+    }
+}
@@ -0,0 +1,150 @@
+package sketchy.output;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class PackSinkTest {
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Path file = Files.createTempFile("programs", ".pack");
+        try {
+            write(file, true);
+            try (PackReader reader = new PackReader(file)) {
+                Assert.assertEquals(Arrays.asList("values.txt", "T1.java", "\u00e9.java"),
+                        Arrays.asList(reader.getFiles().toArray()));
+                Assert.assertEquals("header\nv1\nv2\n", read(reader, "values.txt"));
+                Assert.assertEquals("class T1 {}", read(reader, "T1.java"));
+                Assert.assertEquals("class B {}", read(reader, "\u00e9.java"));
+                Assert.assertNull(reader.read("T2.java"));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testNotClosed() throws IOException {
+        Path file = Files.createTempFile("programs", ".pack");
+        try {
+            write(file, false);
+            // Cut the last entry in the middle
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+            try (PackReader reader = new PackReader(file)) {
+                Assert.assertEquals(Arrays.asList("values.txt", "T1.java"),
+                        Arrays.asList(reader.getFiles().toArray()));
+                Assert.assertEquals("header\nv1\nv2\n", read(reader, "values.txt"));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testNotPack() throws IOException {
+        Path file = Files.createTempFile("programs", ".pack");
+        Files.write(file, Collections.singletonList("class T1 {}"));
+        try {
+            new PackReader(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testUnpackClassOfPackage() throws IOException {
+        Path file = Files.createTempFile("programs", ".pack");
+        Path dir = Files.createTempDirectory("unpacked");
+        try {
+            try (PackSink sink = new PackSink(file)) {
+                sink.write("pkg/A.class", new byte[] {1, 2, 3});
+            }
+            Unpack.main(new String[] {file.toString(), "--outputDir=" + dir});
+            Assert.assertArrayEquals(new byte[] {1, 2, 3},
+                    Files.readAllBytes(dir.resolve("pkg").resolve("A.class")));
+        } finally {
+            Files.delete(file);
+            Files.delete(dir.resolve("pkg").resolve("A.class"));
+            Files.delete(dir.resolve("pkg"));
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testAsyncCloseAfterError() throws IOException {
+        Path file = Files.createTempFile("programs", ".pack");
+        try {
+            PackSink pack = new PackSink(file);
+            AsyncSink sink = new AsyncSink(new OutputSink() {
+                @Override
+                public void write(String f, byte[] contents) {
+                    if (f.equals("bad")) {
+                        throw new RuntimeException("Failed to write " + f + "!");
+                    }
+                    pack.write(f, contents);
+                }
+
+                @Override
+                public void append(String f, byte[] contents) {
+                    pack.append(f, contents);
+                }
+
+                @Override
+                public void flush() {
+                    pack.flush();
+                }
+
+                @Override
+                public void close() {
+                    pack.close();
+                }
+            });
+            sink.write("T1.java", "class T1 {}");
+            sink.write("bad", "");
+            sink.write("T2.java", "class T2 {}");
+            try {
+                sink.close();
+                Assert.fail();
+            } catch (RuntimeException e) {
+                Assert.assertEquals("Failed to write bad!", e.getCause().getMessage());
+            }
+            // The pack is closed with its index all the same
+            byte[] bytes = Files.readAllBytes(file);
+            Assert.assertEquals(PackSink.MAGIC,
+                    ByteBuffer.wrap(bytes, bytes.length - Integer.BYTES, Integer.BYTES).getInt());
+            try (PackReader reader = new PackReader(file)) {
+                Assert.assertEquals(Collections.singleton("T1.java"), reader.getFiles());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void write(Path file, boolean close) {
+        PackSink sink = new PackSink(file);
+        sink.write("values.txt", "header\n");
+        sink.write("T1.java", "class T0 {}");
+        sink.append("values.txt", "v1\n");
+        sink.write("T1.java", "class T1 {}");
+        sink.append("values.txt", "v2\n");
+        sink.write("\u00e9.java", "class B {}");
+        if (close) {
+            sink.close();
+        } else {
+            sink.flush();
+        }
+    }
+
+    private static String read(PackReader reader, String file) {
+        return new String(reader.read(file), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,82 @@
+package sketchy.transformer;
+
+import com.github.javaparser.StaticJavaParser;
+import org.junit.Assert;
+import org.junit.Test;
+import sketchy.Config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class OutputSplicerTest {
+
+    private static final String SKETCH =
+            "import sketchy.annotation.Entry;\n" +
+            "import static sketchy.Sketchy.*;\n" +
+            "public class Sk {\n" +
+            "    static int s1;\n" +
+            "    static int f = intVal().eval(1);\n" +
+            "    @Entry\n" +
+            "    public static int m() {\n" +
+            "        int x = intVal().eval(2);\n" +
+            "        for (int i = 0; i < 3; i++) {\n" +
+            "            if (x > 0) {\n" +
+            "                s1 += Math.max(arithmetic(intId(), intVal()).eval(3),\n" +
+            "                        arithmetic(intId(\"Sk.s1\"), intVal()).eval(4));\n" +
+            "            }\n" +
+            "            ifStmt(relation(intId(), intVal())).eval(5);\n" +
+            "        }\n" +
+            "        switch (x) {\n" +
+            "            case 1:\n" +
+            "                assignStmt(intId(\"s1\"), intVal()).eval(6);\n" +
+            "                break;\n" +
+            "            default:\n" +
+            "                preIncIntStmt(\"x\").eval(7);\n" +
+            "        }\n" +
+            "        return x + s1 + Sk.s1 + intVal().eval(8);\n" +
+            "    }\n" +
+            "}";
+
+    @Test
+    public void testSameAsAst() {
+        // Splices rather than falls back to the AST
+        Assert.assertNotNull(OutputSplicer.of(StaticJavaParser.parse(SKETCH), "Sk", cu -> cu.toString()));
+        OutputTransformer transformer = new OutputTransformer(StaticJavaParser.parse(SKETCH),
+                "Sk", "m", false, Collections.emptyList());
+
+        Map<Integer, String> filledHoles = new HashMap<>();
+        filledHoles.put(1, "42");
+        // Expressions printed on more than one line
+        filledHoles.put(2, "new java.util.function.IntSupplier() { public int getAsInt() { return 3; } }.getAsInt()");
+        filledHoles.put(3, "((java.util.function.IntUnaryOperator) v -> { int w = v * 2; return w; }).applyAsInt(x)");
+        // Holes 4 and 7 are not filled
+        filledHoles.put(5, "if (x < i) { s1++; } else { s1 = Sk.s1 - 1; }");
+        filledHoles.put(6, "s1 = 6;");
+        filledHoles.put(8, "Sk.s1 * (x + 1)");
+        assertSameAsAst(transformer, "SkGen1", filledHoles);
+
+        // Other fills, and the same fills again from the cache
+        Map<Integer, String> otherHoles = new HashMap<>(filledHoles);
+        otherHoles.put(4, "x - i");
+        otherHoles.put(5, "{ s1--; x += 2; }");
+        otherHoles.remove(6);
+        otherHoles.put(7, "x = i;");
+        assertSameAsAst(transformer, "SkGen2", otherHoles);
+        assertSameAsAst(transformer, "SkGen3", filledHoles);
+    }
+
+    private static void assertSameAsAst(OutputTransformer transformer, String clzName,
+                                        Map<Integer, String> filledHoles) {
+        transformer.setOutClzName(clzName).setFilledHoles(filledHoles);
+        boolean optSpliceOutput = Config.optSpliceOutput;
+        try {
+            Config.optSpliceOutput = false;
+            String expected = transformer.transformAndGetSrcCode();
+            Config.optSpliceOutput = true;
+            Assert.assertEquals(expected, transformer.transformAndGetSrcCode());
+        } finally {
+            Config.optSpliceOutput = optSpliceOutput;
+        }
+    }
+}
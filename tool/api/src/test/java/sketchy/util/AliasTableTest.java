@@ -0,0 +1,32 @@
+package sketchy.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AliasTableTest {
+
+    @Test
+    public void testSampleByWeights() {
+        AliasTable table = new AliasTable(new double[]{1, 0, 3});
+        Rand rand = new Rand(42);
+        int[] counts = new int[3];
+        int n = 40000;
+        for (int i = 0; i < n; i++) {
+            counts[table.sample(rand)]++;
+        }
+        Assert.assertEquals(0, counts[1]);
+        Assert.assertEquals(0.25, (double) counts[0] / n, 0.01);
+        Assert.assertEquals(0.75, (double) counts[2] / n, 0.01);
+    }
+
+    @Test
+    public void testSingleChoice() {
+        AliasTable table = new AliasTable(new double[]{5});
+        Assert.assertEquals(0, table.sample(new Rand(42)));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testAllZeroWeights() {
+        new AliasTable(new double[]{0, 0});
+    }
+}
@@ -0,0 +1,48 @@
+package sketchy.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class KeyedRandTest {
+
+    @Test
+    public void testSameKeySameValues() {
+        KeyedRand rand = new KeyedRand(42);
+        rand.key(7, 0, 3);
+        int[] first = rand.nextInts(10);
+        // Draw from other keys in between
+        rand.key(7, 0, 4);
+        rand.nextLong();
+        rand.key(8, 1, 3);
+        rand.nextInt(100);
+        rand.key(7, 0, 3);
+        Assert.assertArrayEquals(first, rand.nextInts(10));
+        Assert.assertArrayEquals(first, keyed(new KeyedRand(42), 7, 0, 3).nextInts(10));
+    }
+
+    @Test
+    public void testDifferentKeysDifferentValues() {
+        long a = keyed(new KeyedRand(42), 1, 0, 1).nextLong();
+        Assert.assertNotEquals(a, keyed(new KeyedRand(42), 1, 0, 2).nextLong());
+        Assert.assertNotEquals(a, keyed(new KeyedRand(42), 1, 1, 1).nextLong());
+        Assert.assertNotEquals(a, keyed(new KeyedRand(42), 2, 0, 1).nextLong());
+        Assert.assertNotEquals(a, keyed(new KeyedRand(43), 1, 0, 1).nextLong());
+    }
+
+    @Test
+    public void testBoundedValues() {
+        KeyedRand rand = keyed(new KeyedRand(42), 1, 0, 1);
+        int[] counts = new int[4];
+        for (int i = 0; i < 40000; i++) {
+            counts[rand.nextInt(4)]++;
+        }
+        for (int c : counts) {
+            Assert.assertEquals(0.25, c / 40000.0, 0.01);
+        }
+    }
+
+    private static KeyedRand keyed(KeyedRand rand, long... key) {
+        rand.key(key);
+        return rand;
+    }
+}
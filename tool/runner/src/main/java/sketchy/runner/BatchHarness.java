@@ -0,0 +1,146 @@
+package sketchy.runner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs many programs in one JVM, each from a class loader of its own,
+ * so that a batch of programs pays for one JVM startup in a mode
+ * instead of one per program.
+ * <p>
+ * Usage: {@code BatchHarness --programPath=<path> [--timeout=<millis>]
+ * [--programArgs=<args>] program...}, where the programs must not be
+ * on the class path of this JVM, or they would share one class loader.
+ * <p>
+ * For every program we print {@code START <program>}, run its
+ * {@code main0}, which returns the checksum that {@code main} prints,
+ * or else its {@code main}, with the standard output and error
+ * captured, and print {@code END <program> <exitCode> <millis>
+ * <nBytes>} followed by what it prints. A program that throws exits
+ * with 1, as it does alone, and so does one that cannot be loaded,
+ * after a line starting with {@code Error: }, as java prints. A program that is not done in time cannot
+ * be stopped, so we print {@code TIMEOUT <program>} and exit, and a
+ * crash of this JVM leaves a START without an END; {@link Runner}
+ * runs the programs left in another batch.
+ */
+public class BatchHarness {
+
+    static final String START = "START";
+    static final String END = "END";
+    static final String TIMEOUT = "TIMEOUT";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<URL> urls = new ArrayList<>();
+        long timeoutMillis = Long.MAX_VALUE;
+        String[] programArgs = new String[0];
+        List<String> programs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--programPath=")) {
+                for (String path : arg.substring("--programPath=".length()).split(File.pathSeparator)) {
+                    urls.add(Paths.get(path).toUri().toURL());
+                }
+            } else if (arg.startsWith("--timeout=")) {
+                timeoutMillis = Long.parseLong(arg.substring("--timeout=".length()));
+            } else if (arg.startsWith("--programArgs=")) {
+                String value = arg.substring("--programArgs=".length()).trim();
+                programArgs = value.isEmpty() ? new String[0] : value.split("\\s+");
+            } else if (arg.startsWith("--")) {
+                throw new RuntimeException("Unrecognized option: " + arg + "!");
+            } else {
+                programs.add(arg);
+            }
+        }
+        if (urls.isEmpty()) {
+            throw new RuntimeException("--programPath is required!");
+        }
+        URL[] programPath = urls.toArray(new URL[0]);
+        OutputStream out = new FileOutputStream(FileDescriptor.out);
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        PrintStream capture = new PrintStream(captured, true);
+        System.setOut(capture);
+        System.setErr(capture);
+        for (String program : programs) {
+            writeLine(out, START + " " + program);
+            captured.reset();
+            int[] exitCode = new int[1];
+            String[] argsCopy = programArgs.clone();
+            Thread thread = new Thread(
+                    () -> exitCode[0] = run(programPath, program, argsCopy), program);
+            thread.setDaemon(true);
+            long start = System.currentTimeMillis();
+            thread.start();
+            thread.join(timeoutMillis);
+            long millis = System.currentTimeMillis() - start;
+            if (thread.isAlive()) {
+                writeLine(out, TIMEOUT + " " + program);
+                // The program keeps running, which only stopping the
+                // JVM stops
+                Runtime.getRuntime().halt(0);
+            }
+            capture.flush();
+            byte[] output = captured.toByteArray();
+            writeLine(out, END + " " + program + " " + exitCode[0] + " " + millis + " " + output.length);
+            out.write(output);
+            out.flush();
+        }
+    }
+
+    private static void writeLine(OutputStream out, String line) throws IOException {
+        out.write((line + "\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    /**
+     * Runs a program from a new class loader and returns its exit
+     * code.
+     */
+    private static int run(URL[] urls, String program, String[] args) {
+        try (URLClassLoader loader = new URLClassLoader(urls, ClassLoader.getSystemClassLoader())) {
+            Class<?> clz = loader.loadClass(program);
+            Method main0 = findMain(clz, "main0");
+            try {
+                if (main0 != null && main0.getReturnType() != void.class) {
+                    System.out.println(main0.invoke(null, (Object) args));
+                } else {
+                    Method main = findMain(clz, "main");
+                    if (main == null) {
+                        throw new RuntimeException("No main in " + program + "!");
+                    }
+                    main.invoke(null, (Object) args);
+                }
+            } catch (InvocationTargetException e) {
+                // Without the stack trace, whose frames of reflection
+                // depend on how many programs run before
+                System.err.println("Exception in thread \"main\" " + e.getCause());
+                return 1;
+            }
+            return 0;
+        } catch (Throwable t) {
+            System.err.println(Execution.LAUNCH_ERROR + t);
+            return 1;
+        }
+    }
+
+    private static Method findMain(Class<?> clz, String name) {
+        try {
+            Method method = clz.getMethod(name, String[].class);
+            return Modifier.isStatic(method.getModifiers()) ? method : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package sketchy.runner;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What a run of {@link BatchHarness} prints, split into the runs of
+ * its programs.
+ */
+class BatchOutput {
+
+    /**
+     * Runs of the programs that are done, in order.
+     */
+    final Map<String, Execution> done = new LinkedHashMap<>();
+    /**
+     * The program that timed out, or null.
+     */
+    String timedOut;
+    /**
+     * The program that started last but is not done, or null.
+     */
+    String running;
+    /**
+     * What is printed after the last program that is done, e.g., by a
+     * crash of the JVM.
+     */
+    byte[] rest = new byte[0];
+
+    /**
+     * Parses the output up to where it ends, e.g., in the middle of a
+     * program. Lines that are not ours, e.g., warnings of the JVM, are
+     * part of the output of the program that is running, or else
+     * skipped.
+     */
+    static BatchOutput parse(Mode mode, byte[] output) {
+        BatchOutput batch = new BatchOutput();
+        int pos = 0;
+        int restStart = 0;
+        while (pos < output.length) {
+            int eol = indexOf(output, (byte) '\n', pos);
+            if (eol < 0) {
+                break;
+            }
+            String[] line = new String(output, pos, eol - pos, StandardCharsets.US_ASCII).split(" ");
+            pos = eol + 1;
+            if (line.length == 2 && line[0].equals(BatchHarness.START)) {
+                batch.running = line[1];
+                restStart = pos;
+            } else if (line.length == 2 && line[0].equals(BatchHarness.TIMEOUT)
+                    && line[1].equals(batch.running)) {
+                batch.timedOut = line[1];
+                batch.running = null;
+                restStart = pos;
+            } else if (line.length == 5 && line[0].equals(BatchHarness.END)
+                    && line[1].equals(batch.running)) {
+                int length = Integer.parseInt(line[4]);
+                if (pos + length > output.length) {
+                    break;
+                }
+                batch.done.put(line[1], new Execution(mode, Integer.parseInt(line[2]), false,
+                        Long.parseLong(line[3]), Arrays.copyOfRange(output, pos, pos + length)));
+                batch.running = null;
+                pos += length;
+                restStart = pos;
+            }
+        }
+        batch.rest = Arrays.copyOfRange(output, restStart, output.length);
+        return batch;
+    }
+
+    private static int indexOf(byte[] bytes, byte b, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
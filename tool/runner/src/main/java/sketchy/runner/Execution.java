@@ -0,0 +1,60 @@
+package sketchy.runner;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * A run of a program in a mode.
+ */
+public class Execution {
+
+    static final String LAUNCH_ERROR = "Error: ";
+
+    public final Mode mode;
+    /**
+     * The exit code, or -1 if timed out.
+     */
+    public final int exitCode;
+    public final boolean timedOut;
+    public final long millis;
+    /**
+     * What the program prints to its standard output and error.
+     */
+    public final byte[] output;
+
+    public Execution(Mode mode, int exitCode, boolean timedOut, long millis, byte[] output) {
+        this.mode = mode;
+        this.exitCode = exitCode;
+        this.timedOut = timedOut;
+        this.millis = millis;
+        this.output = output;
+    }
+
+    /**
+     * Returns true if the program is not run at all, e.g., its main
+     * class cannot be loaded, for which both java and
+     * {@link BatchHarness} exit with a line starting with
+     * {@code Error: }.
+     */
+    public boolean isLaunchError() {
+        if (exitCode == 0 || timedOut) {
+            return false;
+        }
+        for (String line : new String(output, StandardCharsets.UTF_8).split("\n")) {
+            if (line.startsWith(LAUNCH_ERROR)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the CRC32 of the output in hex, which tells outputs
+     * apart in results.
+     */
+    public String getOutputCrc() {
+        CRC32 crc = new CRC32();
+        crc.update(output);
+        return String.format("%08x", crc.getValue());
+    }
+}
@@ -0,0 +1,60 @@
+package sketchy.runner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A way to run programs on the JVM under test, e.g., with the JIT
+ * compilers up to a tier.
+ */
+public class Mode {
+
+    public final String name;
+    /**
+     * JVM options of this mode.
+     */
+    public final List<String> options;
+
+    private Mode(String name, List<String> options) {
+        this.name = name;
+        this.options = Collections.unmodifiableList(options);
+    }
+
+    /**
+     * Returns the mode of the given name, i.e., {@code levelN} that
+     * stops tiered compilation at level N, or {@code int} that only
+     * interprets.
+     */
+    public static Mode of(String name) {
+        if (name.matches("level[0-4]")) {
+            return new Mode(name, Collections.singletonList(
+                    "-XX:TieredStopAtLevel=" + name.charAt(name.length() - 1)));
+        }
+        if (name.equals("int")) {
+            return new Mode(name, Collections.singletonList("-Xint"));
+        }
+        throw new RuntimeException("Unsupported mode: " + name + "!");
+    }
+
+    /**
+     * Returns the modes in the given comma-separated list.
+     */
+    public static List<Mode> parseList(String names) {
+        List<Mode> modes = new ArrayList<>();
+        for (String name : Arrays.asList(names.split(","))) {
+            Mode mode = of(name.trim());
+            for (Mode m : modes) {
+                if (m.name.equals(mode.name)) {
+                    throw new RuntimeException("Duplicate mode: " + name + "!");
+                }
+            }
+            modes.add(mode);
+        }
+        if (modes.size() < 2) {
+            throw new RuntimeException("At least two modes are needed to compare!");
+        }
+        return modes;
+    }
+}
@@ -0,0 +1,35 @@
+package sketchy.runner;
+
+/**
+ * Defines the results of a program over all modes.
+ */
+public enum Result {
+
+    /**
+     * Every mode exits and prints the same.
+     */
+    PASS,
+
+    /**
+     * Some modes exit or print differently, which is a potential JIT
+     * bug.
+     */
+    DIFF,
+
+    /**
+     * Some mode does not finish in time, so the program is not
+     * compared.
+     */
+    TIMEOUT,
+
+    /**
+     * Some mode cannot run the program, e.g., cannot load its main
+     * class, so it is not compared.
+     */
+    ERROR,
+
+    /**
+     * The program does not compile, so it is not run.
+     */
+    COMPILE_ERROR
+}
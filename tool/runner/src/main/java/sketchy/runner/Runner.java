@@ -0,0 +1,458 @@
+package sketchy.runner;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs generated programs in several modes of the JVM under test and
+ * compares what they print, e.g., the checksums of their results.
+ * <p>
+ * Usage: {@code Runner --programs=<dir> [--classPath=<cp>]
+ * [--modes=level4,level1] [--threads=N] [--timeout=<seconds>]
+ * [--java=<java>] [--javaOptions=<options>] [--programArgs=<args>]
+ * [--batchSize=N] [--outputDir=<dir>]}.
+ * <p>
+ * Programs are the .java files in the directory, which are run from
+ * the class files next to them, under the directories of their
+ * packages, e.g., written with {@code --saveClassFiles}, or else
+ * compiled all at once in this JVM.
+ * Every run of a program in a mode is a process of its own, at most
+ * {@code threads} at a time, and is killed after the timeout. With
+ * a batch size above 1, a process runs that many programs instead,
+ * see {@link BatchHarness}, so that short programs do not spend most
+ * of their time starting the JVM. Once
+ * all modes of a program are done, we compare their exit codes and
+ * outputs in memory, and add a row per mode to {@code results.csv}
+ * in the output directory, where the outputs of programs that do not
+ * pass are also kept.
+ */
+public class Runner {
+
+    private static final String RESULTS_FILE = "results.csv";
+    private static final String RESULTS_HEADER = "program,result,mode,exitCode,millis,outputCrc\n";
+    private static final Pattern PACKAGE = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+
+    private Path programsDir;
+    private String classPath = "";
+    private List<Mode> modes = Mode.parseList("level4,level1");
+    private int nThreads = Runtime.getRuntime().availableProcessors();
+    private long timeoutMillis = TimeUnit.SECONDS.toMillis(120);
+    private String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    private List<String> javaOptions = new ArrayList<>();
+    private List<String> programArgs = new ArrayList<>();
+    private int batchSize = 1;
+    private Path outputDir = Paths.get("output");
+
+    /**
+     * The fully qualified class names of the programs.
+     */
+    private final Map<String, String> classNames = new HashMap<>();
+    private BufferedWriter results;
+    private final Map<Result, AtomicInteger> counts = new EnumMap<>(Result.class);
+    /**
+     * The first error of running a program, e.g., a bad java, which
+     * stops us.
+     */
+    private volatile Throwable error;
+
+    public static void main(String[] args) throws IOException {
+        Runner runner = new Runner();
+        runner.parseArgs(args);
+        runner.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new RuntimeException("Expect --key=value but encountered " + arg + "!");
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (key) {
+            case "programs":
+                programsDir = Paths.get(value);
+                break;
+            case "classPath":
+                classPath = value;
+                break;
+            case "modes":
+                modes = Mode.parseList(value);
+                break;
+            case "threads":
+                nThreads = Integer.parseInt(value);
+                break;
+            case "timeout":
+                timeoutMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+                break;
+            case "java":
+                java = value;
+                break;
+            case "javaOptions":
+                javaOptions = split(value);
+                break;
+            case "programArgs":
+                programArgs = split(value);
+                break;
+            case "batchSize":
+                batchSize = Integer.parseInt(value);
+                break;
+            case "outputDir":
+                outputDir = Paths.get(value);
+                break;
+            default:
+                throw new RuntimeException("Unrecognized option: " + key + "!");
+            }
+        }
+        if (programsDir == null) {
+            throw new RuntimeException("--programs is required!");
+        }
+        if (nThreads < 1 || timeoutMillis < 1 || batchSize < 1) {
+            throw new RuntimeException("threads, timeout and batchSize must be positive!");
+        }
+    }
+
+    private static List<String> split(String value) {
+        return value.trim().isEmpty()
+                ? new ArrayList<>()
+                : new ArrayList<>(Arrays.asList(value.trim().split("\\s+")));
+    }
+
+    private void run() throws IOException {
+        for (Result r : Result.values()) {
+            counts.put(r, new AtomicInteger());
+        }
+        Files.createDirectories(outputDir);
+        List<String> programs = findPrograms();
+        for (String program : programs) {
+            classNames.put(program, getClassName(programsDir.resolve(program + ".java")));
+        }
+        Path buildDir = outputDir.resolve("classes");
+        List<String> compiled = compile(programs, buildDir);
+        String programPath = String.join(File.pathSeparator,
+                programsDir.toString(), buildDir.toString());
+
+        results = Files.newBufferedWriter(outputDir.resolve(RESULTS_FILE));
+        results.write(RESULTS_HEADER);
+        Set<String> compiledSet = new HashSet<>(compiled);
+        for (String program : programs) {
+            if (!compiledSet.contains(program)) {
+                record(program, Result.COMPILE_ERROR, new Execution[0]);
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            // Run batches one after another, so the results of a
+            // batch come soon after it starts
+            for (int from = 0; from < compiled.size(); from += batchSize) {
+                List<String> batch = compiled.subList(from, Math.min(from + batchSize, compiled.size()));
+                AtomicReferenceArray<Map<String, Execution>> execsPerMode =
+                        new AtomicReferenceArray<>(modes.size());
+                AtomicInteger nLeft = new AtomicInteger(modes.size());
+                for (int i = 0; i < modes.size(); i++) {
+                    int modeIdx = i;
+                    executor.execute(() -> {
+                        if (error != null) {
+                            return;
+                        }
+                        try {
+                            Mode mode = modes.get(modeIdx);
+                            // Runs by class name
+                            Map<String, Execution> execs = new HashMap<>();
+                            if (batchSize == 1) {
+                                String clzName = classNames.get(batch.get(0));
+                                execs.put(clzName, execute(clzName, mode, programPath));
+                            } else {
+                                executeBatch(batch.stream().map(classNames::get).collect(Collectors.toList()),
+                                        mode, programPath, execs);
+                            }
+                            execsPerMode.set(modeIdx, execs);
+                            if (nLeft.decrementAndGet() == 0) {
+                                for (String program : batch) {
+                                    Execution[] execsOfProgram = new Execution[modes.size()];
+                                    for (int j = 0; j < modes.size(); j++) {
+                                        execsOfProgram[j] = execsPerMode.get(j).get(classNames.get(program));
+                                    }
+                                    record(program, judge(execsOfProgram), execsOfProgram);
+                                }
+                            }
+                        } catch (Throwable t) {
+                            error = t;
+                        }
+                    });
+                }
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
+            results.close();
+        }
+        if (error != null) {
+            throw new RuntimeException("Failed to run programs!", error);
+        }
+        System.out.println(programs.size() + " programs: "
+                + counts.entrySet().stream()
+                        .map(e -> e.getValue().get() + " " + e.getKey())
+                        .collect(Collectors.joining(", ")));
+        if (counts.get(Result.DIFF).get() > 0) {
+            System.err.println(counts.get(Result.DIFF).get() + " program(s) differ! Potential JIT bugs!");
+        }
+    }
+
+    /**
+     * Returns the class names of the programs in natural order, e.g.,
+     * T2 before T10.
+     */
+    private List<String> findPrograms() throws IOException {
+        try (Stream<Path> files = Files.list(programsDir)) {
+            return files.map(f -> f.getFileName().toString())
+                    .filter(f -> f.endsWith(".java"))
+                    .map(f -> f.substring(0, f.length() - ".java".length()))
+                    .sorted(Comparator.comparing((String p) -> p.replaceAll("\\d+$", ""))
+                            .thenComparingLong(Runner::getNumber)
+                            .thenComparing(Comparator.naturalOrder()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Returns the fully qualified class name of a program, from its
+     * package declaration.
+     */
+    static String getClassName(Path javaFile) throws IOException {
+        String name = javaFile.getFileName().toString().replaceFirst("\\.java$", "");
+        Matcher m = PACKAGE.matcher(new String(Files.readAllBytes(javaFile), StandardCharsets.UTF_8));
+        return m.find() ? m.group(1) + "." + name : name;
+    }
+
+    private static long getNumber(String program) {
+        String digits = program.replaceAll("^.*?(\\d*)$", "$1");
+        return digits.isEmpty() || digits.length() > 18 ? -1 : Long.parseLong(digits);
+    }
+
+    /**
+     * Compiles the programs without class files all at once, or one
+     * by one if that fails, and returns those that compile.
+     */
+    private List<String> compile(List<String> programs, Path buildDir) throws IOException {
+        List<String> toCompile = programs.stream()
+                .filter(p -> !Files.exists(programsDir.resolve(
+                        classNames.get(p).replace('.', File.separatorChar) + ".class")))
+                .collect(Collectors.toList());
+        List<String> compiled = new ArrayList<>(programs);
+        if (toCompile.isEmpty()) {
+            return compiled;
+        }
+        Files.createDirectories(buildDir);
+        if (compile(toCompile, buildDir, new ByteArrayOutputStream())) {
+            return compiled;
+        }
+        for (String program : toCompile) {
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            if (!compile(Arrays.asList(program), buildDir, err)) {
+                compiled.remove(program);
+                Path dir = Files.createDirectories(outputDir.resolve(program));
+                Files.write(dir.resolve(program + "-javac.txt"), err.toByteArray());
+            }
+        }
+        return compiled;
+    }
+
+    private boolean compile(List<String> programs, Path buildDir, ByteArrayOutputStream err) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "-cp", classPath, "-d", buildDir.toString()));
+        for (String program : programs) {
+            args.add(programsDir.resolve(program + ".java").toString());
+        }
+        return compiler.run(null, null, new PrintStream(err), args.toArray(new String[0])) == 0;
+    }
+
+    private Execution execute(String clzName, Mode mode, String programPath) {
+        List<String> mainAndArgs = new ArrayList<>();
+        mainAndArgs.add("-cp");
+        mainAndArgs.add(String.join(File.pathSeparator, programPath, classPath));
+        mainAndArgs.add(clzName);
+        mainAndArgs.addAll(programArgs);
+        return launch(mode, mainAndArgs, timeoutMillis);
+    }
+
+    /**
+     * Runs the programs, given by class name, in one JVM, the programs
+     * after one that times out in another, and the programs left after
+     * a crash in two halves, until a single program crashes, which is
+     * the program we blame.
+     */
+    private void executeBatch(List<String> programs, Mode mode, String programPath,
+                              Map<String, Execution> execs) {
+        List<String> mainAndArgs = new ArrayList<>();
+        mainAndArgs.add("-cp");
+        mainAndArgs.add(String.join(File.pathSeparator, getRunnerPath(), classPath));
+        mainAndArgs.add(BatchHarness.class.getName());
+        mainAndArgs.add("--programPath=" + programPath);
+        mainAndArgs.add("--timeout=" + timeoutMillis);
+        mainAndArgs.add("--programArgs=" + String.join(" ", programArgs));
+        mainAndArgs.addAll(programs);
+        // The harness times out a program itself, so this is only for
+        // a JVM that hangs
+        Execution exec = launch(mode, mainAndArgs, timeoutMillis * (programs.size() + 1));
+        BatchOutput batch = BatchOutput.parse(mode, exec.output);
+        execs.putAll(batch.done);
+        List<String> left = new ArrayList<>();
+        for (String program : programs) {
+            if (!execs.containsKey(program)) {
+                left.add(program);
+            }
+        }
+        if (batch.timedOut != null) {
+            execs.put(batch.timedOut, new Execution(mode, -1, true, timeoutMillis, batch.rest));
+            left.remove(batch.timedOut);
+            if (!left.isEmpty()) {
+                executeBatch(left, mode, programPath, execs);
+            }
+        } else if (left.size() == 1) {
+            execs.put(left.get(0), new Execution(mode, exec.exitCode, exec.timedOut,
+                    exec.millis, batch.rest));
+        } else if (!left.isEmpty()) {
+            System.err.println("Bisecting " + left.size() + " programs after a crash at " + mode.name
+                    + (batch.running == null ? "" : " in " + batch.running));
+            int half = left.size() / 2;
+            executeBatch(left.subList(0, half), mode, programPath, execs);
+            executeBatch(left.subList(half, left.size()), mode, programPath, execs);
+        }
+    }
+
+    /**
+     * Returns the jar or directory of our classes, which the JVM of a
+     * batch runs {@link BatchHarness} from.
+     */
+    private static String getRunnerPath() {
+        try {
+            return Paths.get(BatchHarness.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                    .toString();
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Runs a JVM in the given mode with the given class path, main
+     * class and arguments.
+     */
+    private Execution launch(Mode mode, List<String> mainAndArgs, long timeoutMillis) {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(java);
+        cmd.addAll(mode.options);
+        cmd.addAll(javaOptions);
+        cmd.addAll(mainAndArgs);
+        Path outputFile = null;
+        try {
+            outputFile = Files.createTempFile("runner-" + mode.name, ".txt");
+            long start = System.currentTimeMillis();
+            Process process = new ProcessBuilder(cmd)
+                    .redirectErrorStream(true)
+                    .redirectOutput(outputFile.toFile())
+                    .start();
+            boolean done = process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS);
+            if (!done) {
+                process.destroyForcibly().waitFor();
+            }
+            long millis = System.currentTimeMillis() - start;
+            return new Execution(mode, done ? process.exitValue() : -1, !done, millis,
+                    Files.readAllBytes(outputFile));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            if (outputFile != null) {
+                try {
+                    Files.deleteIfExists(outputFile);
+                } catch (IOException e) {
+                    // Left in the temporary directory
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the result of the runs of a program in all modes.
+     */
+    static Result judge(Execution[] execs) {
+        for (Execution exec : execs) {
+            if (exec.timedOut) {
+                return Result.TIMEOUT;
+            }
+        }
+        for (Execution exec : execs) {
+            if (exec.isLaunchError()) {
+                return Result.ERROR;
+            }
+        }
+        for (Execution exec : execs) {
+            if (exec.exitCode != execs[0].exitCode || !Arrays.equals(exec.output, execs[0].output)) {
+                return Result.DIFF;
+            }
+        }
+        return Result.PASS;
+    }
+
+    private synchronized void record(String program, Result result, Execution[] execs) {
+        counts.get(result).incrementAndGet();
+        try {
+            if (execs.length == 0) {
+                results.write(program + "," + result + ",,,,\n");
+            }
+            for (Execution exec : execs) {
+                results.write(program + "," + result + "," + exec.mode.name + "," + exec.exitCode
+                        + "," + exec.millis + "," + exec.getOutputCrc() + "\n");
+            }
+            results.flush();
+            if (result == Result.PASS) {
+                return;
+            }
+            System.err.println(program + ": " + result);
+            if (execs.length > 0) {
+                // Keep the outputs to look into
+                Path dir = Files.createDirectories(outputDir.resolve(program));
+                for (Execution exec : execs) {
+                    Files.write(dir.resolve(program + "-" + exec.mode.name + ".txt"), exec.output);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package sketchy.runner;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class RunnerTest {
+
+    private static final Mode L4 = Mode.of("level4");
+    private static final Mode L1 = Mode.of("level1");
+
+    @Test
+    public void testJudge() {
+        Assert.assertEquals(Result.PASS, Runner.judge(new Execution[] {
+                exec(L4, 0, false, "42\n"), exec(L1, 0, false, "42\n")}));
+        Assert.assertEquals(Result.PASS, Runner.judge(new Execution[] {
+                exec(L4, 1, false, "Exception\n"), exec(L1, 1, false, "Exception\n")}));
+        Assert.assertEquals(Result.DIFF, Runner.judge(new Execution[] {
+                exec(L4, 0, false, "42\n"), exec(L1, 0, false, "43\n")}));
+        Assert.assertEquals(Result.DIFF, Runner.judge(new Execution[] {
+                exec(L4, 0, false, "42\n"), exec(L1, 134, false, "42\n")}));
+        Assert.assertEquals(Result.TIMEOUT, Runner.judge(new Execution[] {
+                exec(L4, 0, false, "42\n"), exec(L1, -1, true, "")}));
+        Assert.assertEquals(Result.ERROR, Runner.judge(new Execution[] {
+                exec(L4, 1, false, "Error: Could not find or load main class T1\n"),
+                exec(L1, 1, false, "Error: Could not find or load main class T1\n")}));
+        Assert.assertEquals(Result.ERROR, Runner.judge(new Execution[] {
+                exec(L4, 0, false, "42\n"),
+                exec(L1, 1, false, "Error: java.lang.ClassNotFoundException: T1\n")}));
+    }
+
+    @Test
+    public void testGetClassName() throws IOException {
+        Path dir = Files.createTempDirectory("programs");
+        Path file = dir.resolve("T1.java");
+        try {
+            Files.write(file, "// A test\npackage a.b;\n\npublic class T1 {}\n".getBytes());
+            Assert.assertEquals("a.b.T1", Runner.getClassName(file));
+            Files.write(file, "public class T1 {}\n".getBytes());
+            Assert.assertEquals("T1", Runner.getClassName(file));
+        } finally {
+            Files.delete(file);
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testModes() {
+        Assert.assertEquals("[-XX:TieredStopAtLevel=1]", L1.options.toString());
+        Assert.assertEquals("[-Xint]", Mode.of("int").options.toString());
+        Assert.assertEquals(3, Mode.parseList("level4, level1,int").size());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testOneMode() {
+        Mode.parseList("level4");
+    }
+
+    @Test
+    public void testParseBatchOutput() {
+        BatchOutput batch = BatchOutput.parse(L4, ("VM warning\n"
+                + "START A\nEND A 0 5 3\n42\n"
+                + "START B\nEND B 1 7 8\nSTART C\n"
+                + "START C\n# A fatal error\n").getBytes());
+        Assert.assertEquals("[A, B]", batch.done.keySet().toString());
+        Assert.assertEquals("42\n", new String(batch.done.get("A").output));
+        Assert.assertEquals(1, batch.done.get("B").exitCode);
+        Assert.assertEquals("START C\n", new String(batch.done.get("B").output));
+        Assert.assertEquals("C", batch.running);
+        Assert.assertNull(batch.timedOut);
+        Assert.assertEquals("# A fatal error\n", new String(batch.rest));
+
+        batch = BatchOutput.parse(L4, "START A\nTIMEOUT A\n".getBytes());
+        Assert.assertEquals("A", batch.timedOut);
+        Assert.assertNull(batch.running);
+        Assert.assertTrue(batch.done.isEmpty());
+    }
+
+    private static Execution exec(Mode mode, int exitCode, boolean timedOut, String output) {
+        return new Execution(mode, exitCode, timedOut, 0, output.getBytes());
+    }
+}